@@ -1,10 +1,18 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        // Virtual threads (executor_mode=VIRTUAL)
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -20,8 +28,50 @@ dependencies {
 
     // DataStax Cassandra Java Driver
     implementation("com.datastax.cassandra:cassandra-driver-core:3.11.2")
+
+    // Frame compression for the driver (compression=LZ4); SNAPPY would need org.xerial.snappy:snappy-java
+    implementation("org.lz4:lz4-java:1.8.0")
+
+    // Caffeine cache for train metadata
+    implementation("com.github.ben-manes.caffeine:caffeine:2.9.3")
+
+    // Latency histograms for the statement and operation timers
+    implementation("org.hdrhistogram:HdrHistogram:2.1.12")
+}
+
+// Benchmarks live in src/jmh/java and run offline against the in-process backend:
+//   ./gradlew jmh
+// Pass -PjmhBackend=cassandra to run them against the cluster from config.properties instead.
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkParameters.put("backend", project.objects.listProperty<String>().value(
+            listOf((project.findProperty("jmhBackend") ?: "memory").toString())))
+    resultFormat.set("JSON")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    // -PexecutorMode=VIRTUAL runs the harnesses on virtual threads; -PtracePinning reports every pinned carrier
+    (project.findProperty("executorMode") as String?)?.let { systemProperty("executor_mode", it) }
+    if (project.hasProperty("tracePinning")) {
+        systemProperty("jdk.tracePinnedThreads", "short")
+    }
+}
+// Open-loop load generator against the cluster from config.properties, e.g.
+//   ./gradlew loadgen -PloadgenArgs="loadgen_rate=2000 loadgen_duration_seconds=120"
+tasks.register<JavaExec>("loadgen") {
+    group = "application"
+    description = "Runs the open-loop load generator and writes build/loadgen/report.{csv,json}."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.trains.loadgen.LoadGenerator")
+    args = (project.findProperty("loadgenArgs") ?: "").toString().split(" ").filter { it.isNotBlank() }
+}
+// Bulk import of trains, users and orders from CSV/JSONL, resumable from build/import/checkpoint.properties, e.g.
+//   ./gradlew bulkImport -PimportArgs="import_trains=trains.csv import_orders=orders.jsonl"
+tasks.register<JavaExec>("bulkImport") {
+    group = "application"
+    description = "Imports trains, users and orders files with bounded concurrency and checkpointed progress."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.trains.bulk.BulkImporter")
+    args = (project.findProperty("importArgs") ?: "").toString().split(" ").filter { it.isNotBlank() }
+}
@@ -0,0 +1,55 @@
+package com.trains;
+
+import com.trains.model.Order;
+import com.trains.model.Train;
+import com.trains.model.TrainAvailability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The string handling of the CLI: parsing departures and menu input, formatting listings and orders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormattingBenchmark {
+    private final String departure = "2024-12-28 08:00:00";
+    private final String menuChoice = "4";
+    private final Train train = new Train(8022, Timestamp.valueOf(departure).getTime(), 4, 100);
+    private final TrainAvailability availability = new TrainAvailability(train, 321);
+    private final Order order = new Order(UUID.randomUUID(), train.getKey(), UUID.randomUUID(), 2, 4);
+
+    @Benchmark
+    public long parseDeparture() {
+        return Timestamp.valueOf(departure).getTime();
+    }
+
+    @Benchmark
+    public int parseMenuChoice() {
+        return Integer.parseInt(menuChoice);
+    }
+
+    @Benchmark
+    public String formatAvailability() {
+        return ClientInputHandler.formatAvailability(availability);
+    }
+
+    @Benchmark
+    public String formatOrder() {
+        return ClientInputHandler.formatOrder(order);
+    }
+}
@@ -0,0 +1,58 @@
+package com.trains.benchmarks;
+
+import com.trains.backend.BackendException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared backend with a fixed set of trains. Bookings are cleared before every iteration so the cars never
+ * fill up and each iteration measures the same work.
+ */
+@State(Scope.Benchmark)
+public class BackendState {
+    static final int FIRST_TRAIN_ID = 9000;
+    static final int TRAINS = 20;
+    static final int CARS = 10;
+    static final int SEATS_PER_CAR = 50_000_000;
+    static final long TRIP_DATE = Timestamp.valueOf("2024-12-28 08:00:00").getTime();
+
+    @Param({"memory"})
+    public String backend;
+
+    BenchmarkBackend api;
+    final UUID userId = UUID.randomUUID();
+
+    @Setup(Level.Trial)
+    public void connect() throws BackendException {
+        api = BenchmarkBackend.create(backend);
+        for (int i = 0; i < TRAINS; i++) {
+            api.upsertTrain(FIRST_TRAIN_ID + i, TRIP_DATE, CARS, SEATS_PER_CAR);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearBookings() {
+        api.clearBookings();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        api.close();
+    }
+
+    static int randomTrain() {
+        return FIRST_TRAIN_ID + ThreadLocalRandom.current().nextInt(TRAINS);
+    }
+
+    static int randomCar() {
+        return ThreadLocalRandom.current().nextInt(CARS) + 1;
+    }
+}
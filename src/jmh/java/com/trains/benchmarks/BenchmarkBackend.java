@@ -0,0 +1,55 @@
+package com.trains.benchmarks;
+
+import com.trains.backend.BackendException;
+import com.trains.model.TrainAvailability;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The backend operations the benchmarks measure. The {@code backend} benchmark parameter picks the storage
+ * engine behind the services: {@code memory} runs in-process without a cluster, {@code cassandra} uses the
+ * cluster from config.properties.
+ */
+public interface BenchmarkBackend {
+
+    void upsertTrain(int trainId, long tripDate, int cars, int seatsPerCar);
+
+    boolean upsertOrder(UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount);
+
+    int getTakenSeats(int trainId, long tripDate);
+
+    int getTakenSeatsByCar(int trainId, long tripDate, int car);
+
+    List<TrainAvailability> getAvailableTrains(int limit);
+
+    int reserveSeats(UUID resId, int trainId, long tripDate, UUID userId, int car, int seatsAmount, int carCapacity);
+
+    int confirmReservation(UUID resId, UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount);
+
+    int getReservedSeats(int trainId, long tripDate);
+
+    /**
+     * Conditional seat claims that lost the race, and orders moved to another car after losing, so far.
+     */
+    long getSeatClaimConflicts();
+
+    long getSeatClaimSpills();
+
+    /**
+     * Removes orders and reservations, keeping the trains.
+     */
+    void clearBookings();
+
+    void close();
+
+    static BenchmarkBackend create(String name) throws BackendException {
+        switch (name) {
+            case "memory":
+            case "cassandra":
+                return new ServiceBackend(name);
+            default:
+                throw new IllegalArgumentException("Unknown benchmark backend " + name);
+        }
+    }
+}
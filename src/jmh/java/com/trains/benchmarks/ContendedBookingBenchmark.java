@@ -0,0 +1,120 @@
+package com.trains.benchmarks;
+
+import com.trains.backend.BackendException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code bookers} clients booking the same train at once, each invocation being one round in which every
+ * client places one order. {@code racy} is the unserialized read-then-write path that can oversell across
+ * instances; {@code cas} claims the seats with a conditional update on the seat ledger. The auxiliary counters
+ * give the orders per second and how many claims lost the race or spilled over to another car, so the retry
+ * rate is {@code conflicts / orders}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContendedBookingBenchmark {
+    static final int TRAIN_ID = 9300;
+    static final int CARS = 4;
+    static final long TRIP_DATE = Timestamp.valueOf("2024-12-29 12:00:00").getTime();
+
+    @Param({"memory"})
+    public String backend;
+
+    @Param({"racy", "cas"})
+    public String allocation;
+
+    @Param({"1", "10", "100"})
+    public int bookers;
+
+    BenchmarkBackend api;
+    ExecutorService clients;
+    final UUID userId = UUID.randomUUID();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long orders;
+        public long rejected;
+        public long conflicts;
+        public long spills;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            orders = 0;
+            rejected = 0;
+            conflicts = 0;
+            spills = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void connect() throws BackendException {
+        // BackendConfig.load() lets system properties override keys of config.properties.
+        System.setProperty("booking_coordinator_enabled", "false");
+        System.setProperty("seat_cas_enabled", String.valueOf(allocation.equals("cas")));
+        api = BenchmarkBackend.create(backend);
+        api.upsertTrain(TRAIN_ID, TRIP_DATE, CARS, BackendState.SEATS_PER_CAR);
+        clients = Executors.newFixedThreadPool(bookers);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearBookings() {
+        api.clearBookings();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        clients.shutdownNow();
+        api.close();
+        System.clearProperty("booking_coordinator_enabled");
+        System.clearProperty("seat_cas_enabled");
+    }
+
+    @Benchmark
+    public void bookingRound(Counters counters) throws InterruptedException, ExecutionException {
+        long conflictsBefore = api.getSeatClaimConflicts();
+        long spillsBefore = api.getSeatClaimSpills();
+        List<Future<Boolean>> round = new ArrayList<>(bookers);
+        for (int i = 0; i < bookers; i++) {
+            int car = ThreadLocalRandom.current().nextInt(CARS) + 1;
+            round.add(clients.submit(() -> api.upsertOrder(UUID.randomUUID(), TRAIN_ID, TRIP_DATE, userId, car, 1)));
+        }
+        for (Future<Boolean> order : round) {
+            if (order.get()) {
+                counters.orders++;
+            } else {
+                counters.rejected++;
+            }
+        }
+        counters.conflicts += api.getSeatClaimConflicts() - conflictsBefore;
+        counters.spills += api.getSeatClaimSpills() - spillsBefore;
+    }
+}
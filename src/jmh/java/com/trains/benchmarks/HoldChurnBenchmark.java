@@ -0,0 +1,74 @@
+package com.trains.benchmarks;
+
+import com.trains.backend.BackendException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability reads on a train that has been through {@code churnCycles} hold/confirm cycles. With holds kept
+ * out of the train partition the scores should not depend on the parameter; with holds deleted from the train
+ * partition every cycle used to leave a tombstone the reads had to skip.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HoldChurnBenchmark {
+    static final int TRAIN_ID = 9100;
+    static final int CARS = 10;
+    static final long TRIP_DATE = Timestamp.valueOf("2024-12-29 08:00:00").getTime();
+
+    @Param({"memory"})
+    public String backend;
+
+    @Param({"0", "100000"})
+    public int churnCycles;
+
+    BenchmarkBackend api;
+    final UUID userId = UUID.randomUUID();
+
+    @Setup(Level.Trial)
+    public void churn() throws BackendException {
+        api = BenchmarkBackend.create(backend);
+        api.clearBookings();
+        api.upsertTrain(TRAIN_ID, TRIP_DATE, CARS, BackendState.SEATS_PER_CAR);
+        for (int i = 0; i < churnCycles; i++) {
+            UUID resId = UUID.randomUUID();
+            int car = i % CARS + 1;
+            api.reserveSeats(resId, TRAIN_ID, TRIP_DATE, userId, car, 1, BackendState.SEATS_PER_CAR);
+            api.confirmReservation(resId, UUID.randomUUID(), TRAIN_ID, TRIP_DATE, userId, car, 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        api.close();
+    }
+
+    @Benchmark
+    public int getReservedSeats() {
+        return api.getReservedSeats(TRAIN_ID, TRIP_DATE);
+    }
+
+    @Benchmark
+    public int getTakenSeats() {
+        return api.getTakenSeats(TRAIN_ID, TRIP_DATE);
+    }
+}
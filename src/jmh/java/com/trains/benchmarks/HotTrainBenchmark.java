@@ -0,0 +1,73 @@
+package com.trains.benchmarks;
+
+import com.trains.backend.BackendException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many clients booking the same train, the pattern OrderServiceTestONE reproduces. With
+ * {@code group_commit_window_micros} above zero the orders queued on the train are written as one batch per
+ * group; compare the throughput against the run without a window, on the cassandra backend in particular.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class HotTrainBenchmark {
+    static final int TRAIN_ID = 9200;
+    static final int CARS = 10;
+    static final long TRIP_DATE = Timestamp.valueOf("2024-12-29 10:00:00").getTime();
+
+    @Param({"memory"})
+    public String backend;
+
+    @Param({"0", "250"})
+    public String groupCommitWindowMicros;
+
+    BenchmarkBackend api;
+    final UUID userId = UUID.randomUUID();
+
+    @Setup(Level.Trial)
+    public void connect() throws BackendException {
+        // BackendConfig.load() lets system properties override keys of config.properties.
+        System.setProperty("group_commit_window_micros", groupCommitWindowMicros);
+        api = BenchmarkBackend.create(backend);
+        api.upsertTrain(TRAIN_ID, TRIP_DATE, CARS, BackendState.SEATS_PER_CAR);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearBookings() {
+        api.clearBookings();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        api.close();
+        System.clearProperty("group_commit_window_micros");
+    }
+
+    @Benchmark
+    public boolean upsertOrder() {
+        return api.upsertOrder(UUID.randomUUID(), TRAIN_ID, TRIP_DATE, userId, ThreadLocalRandom.current().nextInt(CARS) + 1, 1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.trains.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Benchmark
+    public boolean upsertOrder(BackendState state) {
+        return state.api.upsertOrder(UUID.randomUUID(), BackendState.randomTrain(), BackendState.TRIP_DATE, state.userId, BackendState.randomCar(), 1);
+    }
+
+    @Benchmark
+    public int getTakenSeats(BackendState state) {
+        return state.api.getTakenSeats(BackendState.randomTrain(), BackendState.TRIP_DATE);
+    }
+
+    @Benchmark
+    public int getTakenSeatsByCar(BackendState state) {
+        return state.api.getTakenSeatsByCar(BackendState.randomTrain(), BackendState.TRIP_DATE, BackendState.randomCar());
+    }
+}
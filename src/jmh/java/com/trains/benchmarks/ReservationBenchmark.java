@@ -0,0 +1,40 @@
+package com.trains.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationBenchmark {
+
+    @Benchmark
+    public int reserveSeats(BackendState state) {
+        return state.api.reserveSeats(UUID.randomUUID(), BackendState.randomTrain(), BackendState.TRIP_DATE, state.userId,
+                BackendState.randomCar(), 1, BackendState.SEATS_PER_CAR);
+    }
+
+    /**
+     * The reservation path of the test harnesses: hold the seats, then turn the hold into an order.
+     */
+    @Benchmark
+    public int reserveAndConfirm(BackendState state) {
+        UUID resId = UUID.randomUUID();
+        int trainId = BackendState.randomTrain();
+        int car = BackendState.randomCar();
+        if (state.api.reserveSeats(resId, trainId, BackendState.TRIP_DATE, state.userId, car, 2, BackendState.SEATS_PER_CAR) == 0) {
+            return 0;
+        }
+        return state.api.confirmReservation(resId, UUID.randomUUID(), trainId, BackendState.TRIP_DATE, state.userId, car, 2);
+    }
+}
@@ -0,0 +1,92 @@
+package com.trains.benchmarks;
+
+import com.trains.backend.BackendConfig;
+import com.trains.backend.BackendException;
+import com.trains.backend.BackendSession;
+import com.trains.backend.OrderService;
+import com.trains.backend.ReservationService;
+import com.trains.backend.TrainService;
+import com.trains.model.TrainAvailability;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the benchmarks through the real services on the given storage engine.
+ */
+class ServiceBackend implements BenchmarkBackend {
+    private final BackendSession session;
+    private final TrainService trainService;
+    private final OrderService orderService;
+    private final ReservationService reservationService;
+
+    ServiceBackend(String storage) throws BackendException {
+        BackendConfig config = BackendConfig.load().with("storage", storage);
+        session = new BackendSession(config.getString("contact_point", "127.0.0.1:9042"),
+                config.getString("keyspace", "Pociagi"), config.getString("consistency", "QUORUM"), config);
+        trainService = session.getTrainService();
+        orderService = session.getOrderService();
+        reservationService = session.getReservationService();
+    }
+
+    @Override
+    public void upsertTrain(int trainId, long tripDate, int cars, int seatsPerCar) {
+        trainService.upsertTrain(trainId, tripDate, cars, seatsPerCar);
+    }
+
+    @Override
+    public boolean upsertOrder(UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount) {
+        return orderService.upsertOrder(orderId, trainId, tripDate, userId, car, seatsAmount);
+    }
+
+    @Override
+    public int getTakenSeats(int trainId, long tripDate) {
+        return orderService.getTakenSeats(trainId, tripDate);
+    }
+
+    @Override
+    public int getTakenSeatsByCar(int trainId, long tripDate, int car) {
+        return orderService.getTakenSeatsByCar(trainId, tripDate, car);
+    }
+
+    @Override
+    public List<TrainAvailability> getAvailableTrains(int limit) {
+        return trainService.getAvailableTrains(limit);
+    }
+
+    @Override
+    public int reserveSeats(UUID resId, int trainId, long tripDate, UUID userId, int car, int seatsAmount, int carCapacity) {
+        return reservationService.reserveSeats(resId, trainId, tripDate, userId, car, seatsAmount, carCapacity);
+    }
+
+    @Override
+    public int confirmReservation(UUID resId, UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount) {
+        return reservationService.confirmReservation(resId, orderId, trainId, tripDate, userId, car, seatsAmount, orderService);
+    }
+
+    @Override
+    public int getReservedSeats(int trainId, long tripDate) {
+        return reservationService.getReservedSeats(trainId, tripDate);
+    }
+
+    @Override
+    public long getSeatClaimConflicts() {
+        return orderService.getSeatClaimConflicts();
+    }
+
+    @Override
+    public long getSeatClaimSpills() {
+        return orderService.getSeatClaimSpills();
+    }
+
+    @Override
+    public void clearBookings() {
+        reservationService.deleteAllReservations();
+        orderService.deleteAllOrders();
+    }
+
+    @Override
+    public void close() {
+        session.getStorage().close();
+    }
+}
@@ -1,13 +1,23 @@
 package com.trains;
 
 import com.trains.backend.*;
-
-import java.sql.Timestamp;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import com.trains.model.AllocationPlan;
+import com.trains.model.Order;
+import com.trains.model.Page;
+import com.trains.model.Train;
+import com.trains.model.TrainAvailability;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 public class ClientInputHandler {
+	private static final DateTimeFormatter DEPARTURE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
 	private UserService userService;
 	private BackendSession session;
 	private Client currentClient;
@@ -33,6 +43,8 @@ public class ClientInputHandler {
 		System.out.println("4 - Add ticket");
 		System.out.println("5 - Scan ticket");
 		System.out.println("6 - Login");
+		System.out.println("7 - Rebuild seat occupancy");
+		System.out.println("8 - Search timetable");
 	}
 
 	public void handleInput() {
@@ -59,7 +71,7 @@ public class ClientInputHandler {
 						break;
 					}
 					case 3: {
-						session.printAllTables();
+						printAllTables();
 						break;
 					}
 					case 4: {
@@ -74,6 +86,15 @@ public class ClientInputHandler {
 						login(scanner);
 						break;
 					}
+					case 7: {
+						int trains = session.getOccupancyService().rebuildAllOccupancy();
+						System.out.println("Seat occupancy rebuilt for " + trains + " trains.");
+						break;
+					}
+					case 8: {
+						searchTimetable(scanner);
+						break;
+					}
 					default: {
 						printActions();
 						break;
@@ -85,13 +106,49 @@ public class ClientInputHandler {
 		}
 	}
 
+	/**
+	 * Rows are printed as the scans read them, in no particular order, so large tables are never held in memory.
+	 */
+	private void printAllTables() {
+		System.out.println("Users: ");
+		AsyncSupport.join(userService.scanAllUsersAsync(user ->
+				System.out.println(String.format("User ID: %s, User name: %s", user.getUserId(), user.getName()))));
+
+		System.out.println("Trains: ");
+		AsyncSupport.join(trainService.scanAllTrainsAsync(train -> System.out.println(formatTrain(train))));
+
+		System.out.println("Orders: ");
+		AsyncSupport.join(orderService.scanAllOrdersAsync(order -> System.out.println(formatOrder(order))));
+
+		System.out.println("All User Orders: ");
+		AsyncSupport.join(userOrderService.scanAllUsersOrdersAsync(order -> System.out.println(formatOrder(order))));
+	}
+
+	static String formatDeparture(long tripDate) {
+		return DEPARTURE_FORMAT.format(Instant.ofEpochMilli(tripDate));
+	}
+
+	static String formatTrain(Train train) {
+		return String.format("Train ID: %d, Departure: %s, Cars: %d, Seats Per Car: %d",
+				train.getTrainId(), formatDeparture(train.getTripDate()), train.getCars(), train.getSeatsPerCar());
+	}
+
+	static String formatAvailability(TrainAvailability availability) {
+		return formatTrain(availability.getTrain()) + ", Available Seats: " + availability.getAvailableSeats();
+	}
+
+	static String formatOrder(Order order) {
+		return String.format("Order ID: %s, Train ID: %d, Trip Date: %s, User ID: %s, Car: %d, Seats Amount: %d",
+				order.getOrderId(), order.getTrainId(), formatDeparture(order.getTripDate()), order.getUserId(), order.getCar(), order.getSeatsAmount());
+	}
+
 	private void addTicket(Scanner scanner) throws BackendException {
 		if (currentClient == null) {
 			throw new BackendException("Najpierw trzeba stworzyć użytkownika.");
 		}
 
 		UUID userId = currentClient.getUserId();
-		List<String> availableTrains = trainService.getAvailableTrains(10);
+		List<TrainAvailability> availableTrains = trainService.getAvailableTrains(10);
 
 		if (availableTrains.isEmpty()) {
 			System.out.println("No available trains.");
@@ -104,16 +161,10 @@ public class ClientInputHandler {
 			return;
 		}
 
-		String selectedTrain = availableTrains.get(trainChoice - 1);
-		String formattedDepartureTime = getFormattedDepartureTime(selectedTrain);
-		if (formattedDepartureTime == null) {
-			System.out.println("Invalid date format.");
-			return;
-		}
-
+		Train selectedTrain = availableTrains.get(trainChoice - 1).getTrain();
 		int numberOfTickets = getNumberOfTickets(scanner);
 		UUID orderId = UUID.randomUUID();
-		String ticketInfo = reserveTickets(orderId, selectedTrain, formattedDepartureTime, userId, numberOfTickets);
+		String ticketInfo = reserveTickets(orderId, selectedTrain, userId, numberOfTickets);
 
 		if (ticketInfo == null) {
 			System.out.println("Not enough seats available for the requested number of tickets.");
@@ -123,10 +174,10 @@ public class ClientInputHandler {
 		}
 	}
 
-	private int getUserTrainChoice(Scanner scanner, List<String> availableTrains) {
+	private int getUserTrainChoice(Scanner scanner, List<TrainAvailability> availableTrains) {
 		System.out.println("Available trains:");
 		for (int i = 0; i < availableTrains.size(); i++) {
-			System.out.println((i + 1) + " - " + availableTrains.get(i));
+			System.out.println((i + 1) + " - " + formatAvailability(availableTrains.get(i)));
 		}
 
 		System.out.print("Choose train: ");
@@ -137,53 +188,23 @@ public class ClientInputHandler {
 		return trainChoice;
 	}
 
-	private String getFormattedDepartureTime(String selectedTrain) {
-		String rawDepartureTime = selectedTrain.split(", ")[1].split(": ")[1];
-		SimpleDateFormat inputFormat = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH);
-		SimpleDateFormat outputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-		try {
-			Date parsedDate = inputFormat.parse(rawDepartureTime);
-			return outputFormat.format(parsedDate);
-		} catch (ParseException e) {
-			return null;
-		}
-	}
-
 	private int getNumberOfTickets(Scanner scanner) {
 		System.out.print("Enter number of tickets: ");
 		return Integer.parseInt(scanner.nextLine());
 	}
 
-	private String reserveTickets(UUID orderId, String selectedTrain, String formattedDepartureTime, UUID userId, int numberOfTickets) {
-		String[] trainDetails = selectedTrain.split(", ");
-		int trainId = Integer.parseInt(trainDetails[0].split(": ")[1]);
-		int cars = Integer.parseInt(trainDetails[2].split(": ")[1]);
-		int carCapacity = Integer.parseInt(trainDetails[3].split(": ")[1]);
-
-		int totalCapacity = cars * carCapacity;
-		int reservedSeats = orderService.getTakenSeats(trainId, formattedDepartureTime);
-		int availableSeats = totalCapacity - reservedSeats;
-
-		if (availableSeats < numberOfTickets) {
+	private String reserveTickets(UUID orderId, Train train, UUID userId, int numberOfTickets) {
+		AllocationPlan plan = orderService.planOrder(train, numberOfTickets);
+		if (plan == null) {
 			return null;
 		}
 
-		int remainingTickets = numberOfTickets;
 		StringBuilder ticketInfo = new StringBuilder();
-
-		for (int car = 1; car <= cars && remainingTickets > 0; car++) {
-			int availableSeatsInCar = carCapacity - orderService.getTakenSeatsByCar(trainId, formattedDepartureTime, car);
-			System.out.println("Car " + car + ": Available seats: " + availableSeatsInCar + ", Car capacity: " + carCapacity + ", Reserved seats: " + orderService.getTakenSeatsByCar(trainId, formattedDepartureTime, car));
-			if (availableSeatsInCar > 0) {
-				int ticketsToReserve = Math.min(remainingTickets, availableSeatsInCar);
-				orderService.upsertOrder(orderId, trainId, Timestamp.valueOf(formattedDepartureTime), userId, car, ticketsToReserve);
-				ticketInfo.append(String.format("Reserved %d tickets in car %d\n", ticketsToReserve, car));
-				remainingTickets -= ticketsToReserve;
-			}
+		for (Map.Entry<Integer, Integer> entry : plan.getSeatsByCar().entrySet()) {
+			ticketInfo.append(String.format("Reserved %d tickets in car %d\n", entry.getValue(), entry.getKey()));
 		}
 
-		return remainingTickets > 0 ? null : ticketInfo.toString();
+		return orderService.placeOrder(orderId, userId, plan) ? ticketInfo.toString() : null;
 	}
 
 	private void scanTicket(Scanner scanner) throws BackendException {
@@ -206,49 +227,66 @@ public class ClientInputHandler {
 		}
 
 		UUID userId = users.get(userChoice - 1).getUserId();
-
-		List<String> availableTrains = trainService.getAvailableTrains(10);
-
-		if (availableTrains.isEmpty()) {
-			System.out.println("No available trains.");
-			return;
-		}
-
-		System.out.println("Available trains:");
-		for (int i = 0; i < availableTrains.size(); i++) {
-			System.out.println((i + 1) + " - " + availableTrains.get(i));
-		}
-
-		System.out.print("Choose train: ");
-		int trainChoice = Integer.parseInt(scanner.nextLine());
-		if (trainChoice < 1 || trainChoice > availableTrains.size()) {
-			System.out.println("Invalid choice.");
-			return;
+		long from = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		long to = LocalDate.now().plusYears(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+		System.out.println("Tickets of " + users.get(userChoice - 1).getName() + " departing from today:");
+		String token = null;
+		int shown = 0;
+		do {
+			Page<Order> page = userOrderService.getOrdersForUser(userId, from, to, 10, token);
+			for (Order order : page.getItems()) {
+				System.out.println((++shown) + " - " + formatOrder(order));
+			}
+			token = page.getNextToken();
+			if (token != null) {
+				System.out.print("More tickets, show next page? (y/n): ");
+				if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+					break;
+				}
+			}
+		} while (token != null);
+		if (shown == 0) {
+			System.out.println("No tickets.");
 		}
+	}
 
-		String selectedTrain = availableTrains.get(trainChoice - 1);
-		String[] trainDetails = selectedTrain.split(", ");
-		int trainId = Integer.parseInt(trainDetails[0].split(": ")[1]);
-		
-		// Pobieranie daty i czasu
-		String rawDepartureTime = trainDetails[1].split(": ")[1]; // np. Sat Dec 28 12:30:00 CET 2024
-		SimpleDateFormat inputFormat = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH);
-		SimpleDateFormat outputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-		String tripDate;
-
+	private void searchTimetable(Scanner scanner) {
+		LocalDate date;
+		LocalTime from;
+		LocalTime to;
 		try {
-			Date parsedDate = inputFormat.parse(rawDepartureTime);
-			tripDate = outputFormat.format(parsedDate);
-		} catch (ParseException e) {
-			System.out.println("Invalid date format.");
+			System.out.print("Date (yyyy-MM-dd): ");
+			date = LocalDate.parse(scanner.nextLine().trim());
+			System.out.print("From (HH:mm): ");
+			from = LocalTime.parse(scanner.nextLine().trim());
+			System.out.print("To (HH:mm): ");
+			to = LocalTime.parse(scanner.nextLine().trim());
+		} catch (DateTimeParseException e) {
+			System.out.println("Invalid date or time.");
 			return;
 		}
-		
-		System.out.println(trainId);
-		System.out.println(tripDate);
-		System.out.println(userId);
 
-		userOrderService.selectOrders(trainId, Timestamp.valueOf(tripDate), userId);
+		long fromMillis = date.atTime(from).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		long toMillis = date.atTime(to).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		String token = null;
+		int shown = 0;
+		do {
+			Page<TrainAvailability> page = trainService.searchTimetable(fromMillis, toMillis, 10, token);
+			for (TrainAvailability availability : page.getItems()) {
+				System.out.println((++shown) + " - " + formatAvailability(availability));
+			}
+			token = page.getNextToken();
+			if (token != null) {
+				System.out.print("More trains, show next page? (y/n): ");
+				if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+					break;
+				}
+			}
+		} while (token != null);
+		if (shown == 0) {
+			System.out.println("No trains depart in that time range.");
+		}
 	}
 
 	private void login(Scanner scanner) throws BackendException {
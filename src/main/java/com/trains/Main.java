@@ -5,6 +5,7 @@ import java.sql.Timestamp;
 import java.util.Properties;
 import java.util.UUID;
 
+import com.trains.backend.BackendConfig;
 import com.trains.backend.BackendException;
 import com.trains.backend.BackendSession;
 import com.trains.backend.TrainService;
@@ -35,7 +36,7 @@ public class Main {
             ex.printStackTrace();
         }
 
-        BackendSession session = new BackendSession(contactPoint, keyspace, consistency);
+        BackendSession session = new BackendSession(contactPoint, keyspace, consistency, new BackendConfig(properties));
         UserService userService = session.getUserService();
         TrainService trainService = session.getTrainService();
         OrderService orderService = session.getOrderService();
@@ -52,17 +53,17 @@ public class Main {
             userService.upsertUser(user3, "Alice Cooper");
             userService.upsertUser(user4, "Bob Marley");
 
-            trainService.upsertTrain(8022, Timestamp.valueOf("2024-12-28 08:00:00"), 4, 100);
-            trainService.upsertTrain(1001, Timestamp.valueOf("2024-12-28 11:00:00"), 5, 50);
-            trainService.upsertTrain(1212, Timestamp.valueOf("2024-12-28 12:30:00"), 3, 150);
+            trainService.upsertTrain(8022, Timestamp.valueOf("2024-12-28 08:00:00").getTime(), 4, 100);
+            trainService.upsertTrain(1001, Timestamp.valueOf("2024-12-28 11:00:00").getTime(), 5, 50);
+            trainService.upsertTrain(1212, Timestamp.valueOf("2024-12-28 12:30:00").getTime(), 3, 150);
 
-            orderService.upsertOrder(UUID.randomUUID(), 8022, Timestamp.valueOf("2024-12-28 08:00:00"), user1, 2, 4);
-            orderService.upsertOrder(UUID.randomUUID(), 8022, Timestamp.valueOf("2024-12-28 08:00:00"), user4, 1, 3);
-            orderService.upsertOrder(UUID.randomUUID(), 1001, Timestamp.valueOf("2024-12-28 11:00:00"), user2, 4, 2);
-            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00"), user3, 5, 6);
-            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00"), user3, 6, 8);
-            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00"), user3, 6, 140);
-            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00"), user2, 6, 5);
+            orderService.upsertOrder(UUID.randomUUID(), 8022, Timestamp.valueOf("2024-12-28 08:00:00").getTime(), user1, 2, 4);
+            orderService.upsertOrder(UUID.randomUUID(), 8022, Timestamp.valueOf("2024-12-28 08:00:00").getTime(), user4, 1, 3);
+            orderService.upsertOrder(UUID.randomUUID(), 1001, Timestamp.valueOf("2024-12-28 11:00:00").getTime(), user2, 4, 2);
+            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00").getTime(), user3, 5, 6);
+            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00").getTime(), user3, 6, 8);
+            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00").getTime(), user3, 6, 140);
+            orderService.upsertOrder(UUID.randomUUID(), 1212, Timestamp.valueOf("2024-12-28 12:30:00").getTime(), user2, 6, 5);
         }
 
         ClientInputHandler clientInputHandler = new ClientInputHandler(userService, session);
@@ -73,6 +74,7 @@ public class Main {
         userService.deleteAllUsers();
         reservationService.deleteAllReservations();
 
+        session.close();
         System.exit(0);
     }
 }
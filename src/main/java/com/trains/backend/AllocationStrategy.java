@@ -0,0 +1,13 @@
+package com.trains.backend;
+
+/**
+ * How {@link SeatAllocationPlanner} spreads an order over the cars of a train.
+ */
+public enum AllocationStrategy {
+    /** Fills cars in order, like the original booking loop. */
+    FIRST_FIT,
+    /** Uses the fullest car that can take the remaining seats, keeping larger gaps free for larger groups. */
+    BEST_FIT,
+    /** Uses the emptiest cars first, so the order is split over as few cars as possible. */
+    LEAST_SPLIT
+}
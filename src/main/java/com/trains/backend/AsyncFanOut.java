@@ -0,0 +1,87 @@
+package com.trains.backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Runs one asynchronous task per input with a bounded number of tasks in flight and collects the results in
+ * input order.
+ */
+public final class AsyncFanOut<T, R> {
+    private final List<T> inputs;
+    private final Function<? super T, CompletableFuture<R>> task;
+    private final AtomicReferenceArray<R> results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+
+    private AsyncFanOut(List<T> inputs, Function<? super T, CompletableFuture<R>> task) {
+        this.inputs = inputs;
+        this.task = task;
+        this.results = new AtomicReferenceArray<>(inputs.size());
+        this.remaining = new AtomicInteger(inputs.size());
+    }
+
+    public static <T, R> CompletableFuture<List<R>> mapOrdered(List<T> inputs, int maxInFlight, Function<? super T, CompletableFuture<R>> task) {
+        if (inputs.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        AsyncFanOut<T, R> fanOut = new AsyncFanOut<>(inputs, task);
+        for (int lane = 0; lane < Math.max(1, Math.min(maxInFlight, inputs.size())); lane++) {
+            fanOut.launchNext();
+        }
+        return fanOut.result;
+    }
+
+    /**
+     * Starts the next pending task. Tasks that are already complete are consumed in a loop rather than by
+     * recursion, so long runs of cache hits do not grow the stack.
+     */
+    private void launchNext() {
+        while (!result.isDone()) {
+            int index = next.getAndIncrement();
+            if (index >= inputs.size()) {
+                return;
+            }
+            CompletableFuture<R> future;
+            try {
+                future = task.apply(inputs.get(index));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+            if (future.isDone()) {
+                record(index, future);
+                continue;
+            }
+            future.whenComplete((value, error) -> {
+                record(index, future);
+                launchNext();
+            });
+            return;
+        }
+    }
+
+    private void record(int index, CompletableFuture<R> future) {
+        try {
+            results.set(index, future.join());
+        } catch (Throwable t) {
+            result.completeExceptionally(t.getCause() != null ? t.getCause() : t);
+            return;
+        }
+        if (remaining.decrementAndGet() == 0) {
+            Object[] values = new Object[results.length()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = results.get(i);
+            }
+            @SuppressWarnings("unchecked")
+            List<R> ordered = (List<R>) new ArrayList<>(Arrays.asList(values));
+            result.complete(ordered);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.trains.backend;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bridges the driver's Guava futures to {@link CompletableFuture} and back to blocking callers.
+ */
+public final class AsyncSupport {
+
+    private AsyncSupport() {
+    }
+
+    /**
+     * Completes on the driver I/O thread, so dependent stages must not block.
+     */
+    public static CompletableFuture<ResultSet> toCompletable(ResultSetFuture future) {
+        CompletableFuture<ResultSet> result = new CompletableFuture<>();
+        future.addListener(() -> {
+            try {
+                result.complete(future.getUninterruptibly());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, Runnable::run);
+        return result;
+    }
+
+    public static <T> CompletableFuture<T> toCompletable(ListenableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.addListener(() -> {
+            try {
+                result.complete(future.get());
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, Runnable::run);
+        return result;
+    }
+
+    /**
+     * Waits for the future and rethrows the original driver exception instead of a {@link CompletionException}.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.trains.backend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Typed view over config.properties. Every setting has a default, so a missing key never fails startup.
+ */
+public class BackendConfig {
+    private static final String PROPERTIES_FILENAME = "config.properties";
+
+    private final Properties properties;
+
+    public BackendConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static BackendConfig defaults() {
+        return new BackendConfig(new Properties());
+    }
+
+    /**
+     * Loads config.properties from the classpath, falling back to defaults when it is absent. A system property
+     * with the same name as a listed key overrides it, e.g. {@code -Dexecutor_mode=VIRTUAL}.
+     */
+    public static BackendConfig load() throws BackendException {
+        Properties properties = new Properties();
+        try (InputStream in = BackendConfig.class.getClassLoader().getResourceAsStream(PROPERTIES_FILENAME)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new BackendException("Could not read " + PROPERTIES_FILENAME + ". " + e.getMessage() + ".", e);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                properties.setProperty(key, override);
+            }
+        }
+        return new BackendConfig(properties);
+    }
+
+    /**
+     * A copy of this configuration with one setting replaced.
+     */
+    public BackendConfig with(String key, String value) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        copy.setProperty(key, value);
+        return new BackendConfig(copy);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -1,57 +1,78 @@
 package com.trains.backend;
 
-import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Session;
-import com.datastax.driver.core.ConsistencyLevel;
-import com.datastax.driver.core.QueryOptions;
 import com.trains.Client;
+import com.trains.backend.cassandra.CassandraStorage;
+import com.trains.backend.memory.InMemoryStorage;
+import com.trains.backend.metrics.BackendMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BackendSession {
     private static final Logger logger = LoggerFactory.getLogger(BackendSession.class);
 
-    private Session session;
+    private Storage storage;
+    private BackendMetrics metrics;
+    private ExecutorMode executorMode;
+    private ExecutorService executor;
     private TrainService trainService;
     private UserService userService;
     private OrderService orderService;
     private UserOrderService userOrderService;
     private ReservationService reservationService;
+    private OccupancyService occupancyService;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public BackendSession(String contactPoints, String keyspace, String consistency) throws BackendException {
-        Cluster.Builder clusterBuilder = Cluster.builder();
-        for (String contactPoint : splitContactPoints(contactPoints)) {
-            String[] parts = contactPoint.split(":");
-            clusterBuilder.addContactPoint(parts[0].trim());
-            if (parts.length > 1) {
-                clusterBuilder.withPort(Integer.parseInt(parts[1].trim()));
-            }
-        }
-        clusterBuilder.withQueryOptions(new QueryOptions().setConsistencyLevel(ConsistencyLevel.valueOf(consistency)));
-        Cluster cluster = clusterBuilder.build();
-        try {
-            session = cluster.connect(keyspace);
-            System.out.println("Connected to keyspace: " + keyspace + " with consistency: " + consistency);
-        } catch (Exception e) {
-            throw new BackendException("Could not connect to the cluster. " + e.getMessage() + ".", e);
-        }
-        trainService = new TrainService(session);
-        userService = new UserService(session);
-        orderService = new OrderService(session);
-        userOrderService = new UserOrderService(session);
-        reservationService = new ReservationService(session);
+        this(contactPoints, keyspace, consistency, BackendConfig.load());
     }
 
-    private String[] splitContactPoints(String contactPoints) {
-        return contactPoints.split(",");
+    /**
+     * Connects to the cluster, or runs entirely in memory when {@code storage=memory} is configured; the
+     * connection arguments are ignored then.
+     */
+    public BackendSession(String contactPoints, String keyspace, String consistency, BackendConfig config) throws BackendException {
+        metrics = new BackendMetrics(config);
+        executorMode = ExecutorMode.from(config);
+        executor = executorMode.newExecutor("backend", config.getInt("executor_platform_threads", 256));
+        if ("memory".equalsIgnoreCase(config.getString("storage", "cassandra"))) {
+            storage = InMemoryStorage.shared();
+            logger.info("Using in-memory storage");
+        } else {
+            storage = CassandraStorage.connect(contactPoints, keyspace, consistency, config, metrics);
+        }
+        occupancyService = new OccupancyService(storage, config, metrics);
+        trainService = new TrainService(storage.trains(), occupancyService, config, metrics, executor);
+        userService = new UserService(storage.users());
+        userOrderService = new UserOrderService(storage.userOrders(), config);
+        orderService = new OrderService(storage.orders(), storage.seatLedger(), trainService, userOrderService, occupancyService, config, metrics, executor);
+        reservationService = new ReservationService(storage.reservations(), orderService, occupancyService, config, metrics, executor);
     }
 
-    protected void finalize() {
+    /**
+     * Returns this instance's seat leases and releases the executor, the metrics and the storage. Only the first
+     * call closes; no monitor is held while it waits for the lease returns and the driver.
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
         try {
-            if (session != null) {
-                session.getCluster().close();
+            if (orderService != null) {
+                orderService.close();
+            }
+            if (executor != null) {
+                executor.shutdown();
+            }
+            if (metrics != null) {
+                metrics.close();
+            }
+            if (storage != null) {
+                storage.close();
             }
         } catch (Exception e) {
             logger.error("Could not close existing cluster", e);
@@ -78,21 +99,41 @@ public class BackendSession {
         return reservationService;
     }
 
-    public Session getSession() {
-        return session;
+    public OccupancyService getOccupancyService() {
+        return occupancyService;
     }
 
-    public void printAllTables() throws BackendException {
-        String output = userService.selectAllUsers();
-        System.out.println("Users: \n" + output);
+    /**
+     * Runs blocking service calls in the configured {@link ExecutorMode}; shut down with the session.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
 
-        output = trainService.selectAllTrains();
-        System.out.println("Trains: \n" + output);
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
 
-        output = orderService.selectAllOrders();
-        System.out.println("Orders: \n" + output);
+    /**
+     * A separate executor in the configured mode for callers that drive their own load, such as the test
+     * harnesses; the caller shuts it down.
+     */
+    public ExecutorService newRequestExecutor(String name, int platformThreads) {
+        return executorMode.newExecutor(name, platformThreads);
+    }
 
-        output = userOrderService.selectAllUsersOrders();
-        System.out.println("All User Orders: \n" + output);
+    public BackendMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * The driver session, or {@code null} with in-memory storage.
+     */
+    public Session getSession() {
+        return storage instanceof CassandraStorage ? ((CassandraStorage) storage).getSession() : null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,385 @@
+package com.trains.backend;
+
+import com.trains.model.Order;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Serializes seat allocation per train within this JVM, so concurrent bookings on one train can no longer
+ * both pass the availability check and oversell it. Each train has a queue of pending orders; at most one
+ * group per train is being allocated or written at a time, and orders arriving meanwhile queue up and are
+ * allocated and committed together as the next group. Different trains never wait for each other.
+ *
+ * <p>Group commit: when a train goes from idle to busy, its first group waits up to
+ * {@code group_commit_window_micros} for more orders, or until {@code booking_max_group_size} are queued.
+ * A group's rows are written as one batch and its counters as one counter batch, so a hot train costs a few
+ * round trips per group instead of a few per order.
+ *
+ * <p>Each group is allocated against a view of the train's ordered seats read from the counters when the group
+ * starts, and updated by the group's accepted orders. The previous group's counters are written by then, so
+ * the view holds every order of this instance; orders of other instances are seen by the next group, which
+ * leaves the same race window as a single availability read, once per group instead of once per order.
+ *
+ * <p>With a {@link SeatEscrow} the view is not used: orders are allocated from the seats this instance has
+ * leased, which holds across instances. Returning an idle lease is queued on the train like an order, so it
+ * never overlaps an allocation.
+ */
+final class BookingCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(BookingCoordinator.class);
+
+    private final TrainService trainService;
+    private final OccupancyService occupancyService;
+    private final SeatEscrow escrow;
+    private final ScheduledExecutorService leaseReturner;
+    private final BiFunction<TrainKey, List<Order>, CompletableFuture<Void>> writeGroup;
+    private final Executor executor;
+    private final int maxGroupSize;
+    private final Executor lingerExecutor;
+    private final AtomicLong lingerTokens = new AtomicLong();
+    private final Map<TrainKey, Lane> lanes = new ConcurrentHashMap<>();
+
+    BookingCoordinator(TrainService trainService, OccupancyService occupancyService, SeatEscrow escrow,
+                       BiFunction<TrainKey, List<Order>, CompletableFuture<Void>> writeGroup, BackendConfig config, Executor executor) {
+        this.trainService = trainService;
+        this.occupancyService = occupancyService;
+        this.escrow = escrow;
+        this.writeGroup = writeGroup;
+        this.executor = executor;
+        this.maxGroupSize = config.getInt("booking_max_group_size", 32);
+        long windowMicros = config.getLong("group_commit_window_micros", 250);
+        this.lingerExecutor = windowMicros > 0 ? CompletableFuture.delayedExecutor(windowMicros, TimeUnit.MICROSECONDS, executor) : null;
+        if (escrow != null) {
+            long period = Math.max(1_000, escrow.getIdleReturnMillis() / 2);
+            leaseReturner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lease-returner");
+                thread.setDaemon(true);
+                return thread;
+            });
+            leaseReturner.scheduleWithFixedDelay(this::returnIdleLeases, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            leaseReturner = null;
+        }
+    }
+
+    /**
+     * Completes with {@code true} once the order is written, or {@code false} when the train does not exist,
+     * the car is invalid or it has too few free seats.
+     */
+    CompletableFuture<Boolean> submit(Order order) {
+        return submitAll(order.getTrainKey(), Collections.singletonList(order));
+    }
+
+    /**
+     * Books orders of the train {@code key} all or nothing: completes with {@code true} once all of them are
+     * written, or {@code false} without writing any when one of them is rejected.
+     */
+    CompletableFuture<Boolean> submitAll(TrainKey key, List<Order> orders) {
+        return enqueue(key, new Request(orders, null));
+    }
+
+    private CompletableFuture<Boolean> enqueue(TrainKey key, Request request) {
+        long[] linger = new long[1];
+        boolean[] start = new boolean[1];
+        lanes.compute(key, (k, lane) -> {
+            Lane current = lane != null ? lane : new Lane();
+            current.queue.add(request);
+            if (!current.draining) {
+                current.draining = true;
+                if (lingerExecutor != null) {
+                    current.lingerToken = linger[0] = lingerTokens.incrementAndGet();
+                } else {
+                    start[0] = true;
+                }
+            } else if (current.lingerToken != 0 && current.queue.size() >= maxGroupSize) {
+                // The group is full before its window closed.
+                current.lingerToken = 0;
+                start[0] = true;
+            }
+            return current;
+        });
+        if (start[0]) {
+            executor.execute(() -> drain(key));
+        } else if (linger[0] != 0) {
+            lingerExecutor.execute(() -> endLinger(key, linger[0]));
+        }
+        return request.result;
+    }
+
+    /**
+     * Starts the first group of a train once its window closes, unless a full group already started it.
+     */
+    private void endLinger(TrainKey key, long token) {
+        boolean[] start = new boolean[1];
+        lanes.computeIfPresent(key, (k, lane) -> {
+            if (lane.lingerToken == token) {
+                lane.lingerToken = 0;
+                start[0] = true;
+            }
+            return lane;
+        });
+        if (start[0]) {
+            drain(key);
+        }
+    }
+
+    private void returnIdleLeases() {
+        long now = System.currentTimeMillis();
+        for (TrainKey key : escrow.leasedTrains()) {
+            if (escrow.isIdle(key, now)) {
+                enqueue(key, new Request(null, LeaseAction.RETURN_IF_IDLE));
+            }
+        }
+    }
+
+    /**
+     * Returns every lease of this instance and waits up to {@code timeoutMillis} for the ledger updates.
+     */
+    void close(long timeoutMillis) {
+        if (escrow == null) {
+            return;
+        }
+        leaseReturner.shutdownNow();
+        try {
+            forEachLease(LeaseAction.RETURN).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.warn("Seat leases not returned: " + e);
+        }
+    }
+
+    /**
+     * Forgets the leases of this instance after the ledger was cleared. Each lease is dropped by its train's
+     * lane, after the groups queued before it, so no group in flight puts seats back into a dropped lease.
+     */
+    void clearLeases() {
+        if (escrow != null) {
+            AsyncSupport.join(forEachLease(LeaseAction.DISCARD));
+        }
+    }
+
+    private CompletableFuture<Void> forEachLease(LeaseAction action) {
+        List<CompletableFuture<Boolean>> done = new ArrayList<>();
+        for (TrainKey key : escrow.leasedTrains()) {
+            done.add(enqueue(key, new Request(null, action)));
+        }
+        return CompletableFuture.allOf(done.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Allocates and commits the next group of the train's queue, then schedules itself again. The lane is
+     * removed once its queue is empty, so idle trains hold no state.
+     */
+    private void drain(TrainKey key) {
+        List<Request> group = new ArrayList<>();
+        lanes.computeIfPresent(key, (k, lane) -> {
+            while (group.size() < maxGroupSize && !lane.queue.isEmpty()) {
+                group.add(lane.queue.poll());
+            }
+            return group.isEmpty() ? null : lane;
+        });
+        if (group.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> committed;
+        try {
+            committed = loadView(key).thenCompose(view -> commit(key, view, group));
+        } catch (RuntimeException e) {
+            committed = new CompletableFuture<>();
+            committed.completeExceptionally(e);
+        }
+        committed.whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                for (Request request : group) {
+                    request.result.completeExceptionally(error);
+                }
+            }
+            drain(key);
+        }, executor);
+    }
+
+    private CompletableFuture<SeatView> loadView(TrainKey key) {
+        return trainService.getTrainAsync(key.getTrainId(), key.getTripDate()).thenCompose(train -> {
+            if (train == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (escrow != null) {
+                return CompletableFuture.completedFuture(new SeatView(train, null));
+            }
+            return occupancyService.getOrderedSeatsPerCarAsync(key.getTrainId(), key.getTripDate(), train.getCars())
+                    .thenApply(ordered -> new SeatView(train, ordered));
+        });
+    }
+
+    /**
+     * Decides every order of the group against the view in arrival order, then writes the accepted ones as
+     * one batch and their counters as one counter batch.
+     */
+    private CompletableFuture<Void> commit(TrainKey key, SeatView view, List<Request> group) {
+        List<Request> bookings = new ArrayList<>();
+        LeaseAction leaseAction = null;
+        for (Request request : group) {
+            if (request.orders != null) {
+                bookings.add(request);
+            } else if (leaseAction == null || request.leaseAction.compareTo(leaseAction) > 0) {
+                leaseAction = request.leaseAction;
+            }
+        }
+        CompletableFuture<Void> booked;
+        if (view == null) {
+            logger.warn("Train " + key + " not found");
+            bookings.forEach(request -> request.result.complete(false));
+            booked = CompletableFuture.completedFuture(null);
+        } else if (escrow != null && !bookings.isEmpty()) {
+            Map<Integer, Integer> wanted = new HashMap<>();
+            for (Request request : bookings) {
+                for (Order order : request.orders) {
+                    if (view.train.isValidCar(order.getCar())) {
+                        wanted.merge(order.getCar(), order.getSeatsAmount(), Integer::sum);
+                    }
+                }
+            }
+            booked = escrow.cover(view.train, wanted).thenCompose(covered -> allocate(key, view, bookings));
+        } else {
+            booked = allocate(key, view, bookings);
+        }
+        if (leaseAction == null) {
+            return booked;
+        }
+        LeaseAction action = leaseAction;
+        return booked.thenCompose(done -> {
+            if (action == LeaseAction.DISCARD) {
+                escrow.discard(key);
+            } else if (action == LeaseAction.RETURN || escrow.isIdle(key, System.currentTimeMillis())) {
+                return escrow.release(key);
+            }
+            return CompletableFuture.completedFuture(null);
+        }).thenRun(() -> group.stream().filter(request -> request.orders == null).forEach(request -> request.result.complete(true)));
+    }
+
+    private CompletableFuture<Void> allocate(TrainKey key, SeatView view, List<Request> bookings) {
+        List<Request> accepted = new ArrayList<>();
+        Map<Integer, Integer> seatsByCar = new HashMap<>();
+        for (Request request : bookings) {
+            Map<Integer, Integer> taken = take(key, view, request.orders);
+            if (taken == null) {
+                request.result.complete(false);
+            } else {
+                taken.forEach((car, seats) -> seatsByCar.merge(car, seats, Integer::sum));
+                accepted.add(request);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<Order> orders = new ArrayList<>(accepted.size());
+        for (Request request : accepted) {
+            orders.addAll(request.orders);
+        }
+        return CompletableFuture.allOf(writeGroup.apply(key, orders), occupancyService.addOrderedSeatsAsync(key, seatsByCar))
+                .thenRun(() -> accepted.forEach(request -> request.result.complete(true)));
+    }
+
+    /**
+     * Takes the seats of all orders from the view or the lease, or none of them when one order does not fit.
+     * Returns the seats taken per car, or {@code null} when the orders were rejected.
+     */
+    private Map<Integer, Integer> take(TrainKey key, SeatView view, List<Order> orders) {
+        Map<Integer, Integer> wanted = new HashMap<>();
+        for (Order order : orders) {
+            if (!view.train.isValidCar(order.getCar())) {
+                logger.warn("Invalid car number " + order.getCar() + " for train " + key);
+                return null;
+            }
+            wanted.merge(order.getCar(), order.getSeatsAmount(), Integer::sum);
+        }
+        UUID orderId = orders.get(0).getOrderId();
+        if (escrow == null) {
+            for (Map.Entry<Integer, Integer> entry : wanted.entrySet()) {
+                if (view.ordered[entry.getKey()] + entry.getValue() > view.train.getSeatsPerCar()) {
+                    logger.warn("Not enough seats available for order " + orderId);
+                    return null;
+                }
+            }
+            wanted.forEach((car, seats) -> view.ordered[car] += seats);
+            return wanted;
+        }
+        Map<Integer, Integer> taken = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : wanted.entrySet()) {
+            if (!escrow.take(key, entry.getKey(), entry.getValue())) {
+                taken.forEach((car, seats) -> escrow.putBack(key, car, seats));
+                logger.warn("Not enough seats available for order " + orderId);
+                return null;
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+        return taken;
+    }
+
+    /**
+     * Pending orders of one train. Only accessed inside {@code lanes.compute}, which serializes it.
+     */
+    private static final class Lane {
+        private final Queue<Request> queue = new ArrayDeque<>();
+        private boolean draining;
+        /**
+         * Non-zero while the first group waits for its window to close.
+         */
+        private long lingerToken;
+    }
+
+    /**
+     * What a request without orders does with the train's lease. When a group holds several, the one declared
+     * last wins: a discarded lease cannot be returned, and a forced return covers an idle one.
+     */
+    private enum LeaseAction {
+        RETURN_IF_IDLE,
+        RETURN,
+        DISCARD
+    }
+
+    /**
+     * Orders to allocate together, or without orders a {@link LeaseAction} on the train's lease.
+     */
+    private static final class Request {
+        private final List<Order> orders;
+        private final LeaseAction leaseAction;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Request(List<Order> orders, LeaseAction leaseAction) {
+            this.orders = orders;
+            this.leaseAction = leaseAction;
+        }
+    }
+
+    /**
+     * Ordered seats of one train indexed by car number, as the counters held them plus the orders accepted
+     * since; {@code null} with escrow booking.
+     */
+    private static final class SeatView {
+        private final Train train;
+        private final int[] ordered;
+
+        SeatView(Train train, int[] ordered) {
+            this.train = train;
+            this.ordered = ordered;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.trains.backend;
+
+import com.trains.model.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pages through a range that is split over consecutive bucket partitions (days of the timetable, months of a
+ * user's order history). A page is filled from as many buckets as it takes, so only the last one may be short.
+ * The page token is {@code "<bucket>:<paging state within that bucket>"}, the state empty at the start of a
+ * bucket.
+ */
+public final class BucketPager {
+
+    /**
+     * Reads at most {@code limit} rows of one bucket, continuing from {@code pagingState} when it is not null.
+     */
+    public interface BucketQuery<T> {
+        CompletableFuture<Page<T>> find(int bucket, int limit, String pagingState);
+    }
+
+    private BucketPager() {
+    }
+
+    /**
+     * Completes exceptionally with an {@link IllegalArgumentException} when the page size or token is invalid.
+     */
+    public static <T> CompletableFuture<Page<T>> page(int firstBucket, int lastBucket, int pageSize, String pageToken, BucketQuery<T> query) {
+        if (pageSize < 1) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Page size must be positive: " + pageSize));
+        }
+        int bucket = firstBucket;
+        String pagingState = null;
+        if (pageToken != null) {
+            int separator = pageToken.indexOf(':');
+            try {
+                bucket = Integer.parseInt(pageToken.substring(0, Math.max(0, separator)));
+            } catch (NumberFormatException e) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Malformed page token: " + pageToken));
+            }
+            if (bucket < firstBucket || bucket > lastBucket) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Page token " + pageToken + " does not belong to this range"));
+            }
+            pagingState = separator + 1 < pageToken.length() ? pageToken.substring(separator + 1) : null;
+        }
+        return collect(bucket, lastBucket, pageSize, pagingState, new ArrayList<>(), query);
+    }
+
+    private static <T> CompletableFuture<Page<T>> collect(int bucket, int lastBucket, int pageSize, String pagingState,
+                                                          List<T> collected, BucketQuery<T> query) {
+        return query.find(bucket, pageSize - collected.size(), pagingState).thenCompose(page -> {
+            collected.addAll(page.getItems());
+            if (page.hasNext()) {
+                if (collected.size() == pageSize) {
+                    return CompletableFuture.completedFuture(new Page<>(collected, bucket + ":" + page.getNextToken()));
+                }
+                return collect(bucket, lastBucket, pageSize, page.getNextToken(), collected, query);
+            }
+            if (bucket == lastBucket) {
+                return CompletableFuture.completedFuture(new Page<>(collected, null));
+            }
+            if (collected.size() == pageSize) {
+                return CompletableFuture.completedFuture(new Page<>(collected, (bucket + 1) + ":"));
+            }
+            return collect(bucket + 1, lastBucket, pageSize, null, collected, query);
+        });
+    }
+}
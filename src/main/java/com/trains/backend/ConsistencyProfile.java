@@ -0,0 +1,26 @@
+package com.trains.backend;
+
+/**
+ * What a statement is used for, and so how many replicas it has to reach. Each profile reads its consistency
+ * level from {@code consistency_<profile>} in config.properties; an empty value keeps the session-wide
+ * {@code consistency}. Storage without replicas ignores the profile.
+ */
+public enum ConsistencyProfile {
+    /**
+     * Listings, the timetable, train and user lookups and ticket history, where a write a few milliseconds old
+     * may be missing.
+     */
+    BROWSE,
+    /**
+     * Availability checks of a car that is far from full, in adaptive mode.
+     */
+    CHECK,
+    /**
+     * Order, hold and counter writes, and the availability reads that guard them.
+     */
+    BOOKING;
+
+    public String getConfigKey() {
+        return "consistency_" + name().toLowerCase();
+    }
+}
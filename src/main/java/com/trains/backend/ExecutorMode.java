@@ -0,0 +1,36 @@
+package com.trains.backend;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Which threads run blocking requests: the booking path blocks on the driver for every statement, so each
+ * request occupies its thread until the cluster answers.
+ */
+public enum ExecutorMode {
+    /** A fixed pool of platform threads; concurrency is capped by the pool size. */
+    PLATFORM,
+    /** One virtual thread per task; a blocked request parks instead of holding an OS thread. */
+    VIRTUAL;
+
+    /**
+     * Creates an executor in this mode. {@code platformThreads} sizes the pool in {@link #PLATFORM} mode and
+     * is ignored otherwise.
+     */
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        if (this == VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, r -> {
+            Thread thread = new Thread(r, name + "-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ExecutorMode from(BackendConfig config) {
+        return valueOf(config.getString("executor_mode", PLATFORM.name()).toUpperCase());
+    }
+}
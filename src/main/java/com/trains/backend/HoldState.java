@@ -0,0 +1,14 @@
+package com.trains.backend;
+
+/**
+ * Lifecycle of a row in reservation_holds. Holds are never deleted: closing one overwrites its state and the
+ * row disappears with its TTL.
+ */
+public enum HoldState {
+    /** Counts against availability until it expires. */
+    HELD,
+    /** Turned into an order. */
+    CONFIRMED,
+    /** Given up by the user or dropped during conflict resolution. */
+    RELEASED
+}
@@ -0,0 +1,51 @@
+package com.trains.backend;
+
+import com.trains.model.TrainKey;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage of the seat counters: ordered seats per car (seat_occupancy) and held seats per car and expiry
+ * bucket (held_seats). Counters are only ever incremented; held seats stop counting once their bucket has
+ * passed, so they need no cleanup.
+ */
+public interface OccupancyRepository {
+
+    /**
+     * Adds the deltas, keyed by car, to the ordered counters of one train. All deltas of one call are applied
+     * together.
+     */
+    CompletableFuture<Void> addOrderedAsync(TrainKey key, Map<Integer, Integer> deltas);
+
+    /**
+     * Completes with 0 when the car has no counter yet.
+     */
+    CompletableFuture<Integer> findOrderedAsync(TrainKey key, int car, ConsistencyProfile profile);
+
+    /**
+     * All ordered counters of one train keyed by car, in one read.
+     */
+    CompletableFuture<Map<Integer, Integer>> findAllOrderedAsync(TrainKey key);
+
+    /**
+     * Adds the deltas, keyed by car, to the held counters of one expiry bucket. All deltas of one call are
+     * applied together.
+     */
+    CompletableFuture<Void> addHeldAsync(TrainKey key, long bucket, Map<Integer, Integer> deltas);
+
+    /**
+     * Held seats keyed by car, summed over the buckets from {@code fromBucket} on, in one read.
+     */
+    CompletableFuture<Map<Integer, Integer>> findHeldAsync(TrainKey key, long fromBucket, ConsistencyProfile profile);
+
+    /**
+     * Clears the ordered counters only; they are derived from the orders and must be cleared with them.
+     */
+    void deleteAllOrdered();
+
+    /**
+     * Clears the held counters only; they are derived from the holds and must be cleared with them.
+     */
+    void deleteAllHeld();
+}
@@ -0,0 +1,296 @@
+package com.trains.backend;
+
+import com.trains.backend.metrics.BackendMetrics;
+import com.trains.model.Reservation;
+import com.trains.model.TrainKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maintains the seat counters so availability is a single-partition read instead of a SUM over the
+ * orders partition. Every counter change is applied to the car row and to the {@link #TRAIN_TOTAL} row of the
+ * same partition in one counter batch.
+ *
+ * <p>Held seats are counted per expiry bucket of {@code hold_bucket_seconds}. A hold expires at the end of its
+ * bucket and reads only sum the buckets that have not ended yet, so expired holds drop out of availability
+ * without a delete or a counter decrement.
+ *
+ * <p>Adaptive consistency: with {@code adaptive_consistency_enabled} the availability check before a booking
+ * reads the counters at the {@link ConsistencyProfile#CHECK} level, usually a single replica, and reads them
+ * again at the {@link ConsistencyProfile#BOOKING} level only when the booking would leave the car with less
+ * than {@code adaptive_consistency_margin_percent} of its seats free. A stale answer far from capacity cannot
+ * turn into an oversold car, so most bookings pay single-replica latency. Counters cannot be read at SERIAL;
+ * bookings that must not oversell across instances go through the seat ledger.
+ *
+ * <p>Reads of the ordered seats of one car, or of the train total, are coalesced with {@code read_coalescing_enabled}:
+ * concurrent identical reads share one request, and with {@code read_coalescing_ttl_millis} its result for a
+ * few milliseconds more. Ordered counters changed through this service drop the shared reads of their train.
+ */
+public class OccupancyService {
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyService.class);
+
+    /** Car numbers start at 1, so car 0 holds the whole-train totals. */
+    public static final int TRAIN_TOTAL = 0;
+
+    private OccupancyRepository occupancy;
+    private TrainRepository trains;
+    private OrderRepository orders;
+    private long holdBucketMillis;
+    private boolean adaptiveConsistency;
+    private int adaptiveMarginPercent;
+    private final LongAdder relaxedChecks = new LongAdder();
+    private final LongAdder escalatedChecks = new LongAdder();
+    private SingleFlight<CarKey, Integer> orderedReads;
+
+    public OccupancyService(Storage storage, BackendConfig config, BackendMetrics metrics) {
+        this.occupancy = storage.occupancy();
+        this.trains = storage.trains();
+        this.orders = storage.orders();
+        this.holdBucketMillis = TimeUnit.SECONDS.toMillis(config.getLong("hold_bucket_seconds", 60));
+        this.adaptiveConsistency = config.getBoolean("adaptive_consistency_enabled", false);
+        this.adaptiveMarginPercent = config.getInt("adaptive_consistency_margin_percent", 20);
+        if (config.getBoolean("read_coalescing_enabled", true)) {
+            this.orderedReads = new SingleFlight<>(config.getLong("read_coalescing_ttl_millis", 0), metrics.coalescer("orderedSeats"));
+        }
+    }
+
+    /**
+     * The expiry of a hold with the given TTL placed at {@code now}, rounded up to the end of its bucket so the
+     * hold row and its share of the bucket counter stop counting at the same moment.
+     */
+    public long holdExpiry(long now, long ttlMillis) {
+        long bucket = (now + ttlMillis + holdBucketMillis - 1) / holdBucketMillis;
+        return bucket * holdBucketMillis;
+    }
+
+    public CompletableFuture<Void> addOrderedSeatsAsync(int trainId, long tripDate, int car, int delta) {
+        return addOrderedAsync(new TrainKey(trainId, tripDate), withTotal(car, delta));
+    }
+
+    /**
+     * Adds ordered seats to several cars of one train, and their sum to the train total, in one counter batch.
+     */
+    public CompletableFuture<Void> addOrderedSeatsAsync(TrainKey key, Map<Integer, Integer> seatsByCar) {
+        Map<Integer, Integer> deltas = new HashMap<>(seatsByCar);
+        deltas.put(TRAIN_TOTAL, seatsByCar.values().stream().mapToInt(Integer::intValue).sum());
+        return addOrderedAsync(key, deltas);
+    }
+
+    /**
+     * Shared reads of the train are dropped once the write completes, before the caller sees it complete.
+     */
+    private CompletableFuture<Void> addOrderedAsync(TrainKey key, Map<Integer, Integer> deltas) {
+        CompletableFuture<Void> added = occupancy.addOrderedAsync(key, deltas);
+        return orderedReads == null ? added : added.whenComplete((ignored, error) -> orderedReads.invalidate(read -> read.train.equals(key)));
+    }
+
+    /**
+     * Adds {@code delta} held seats to the bucket the hold expires in; releasing a hold adds the negative
+     * amount to the same bucket.
+     */
+    public CompletableFuture<Void> addHeldSeatsAsync(Reservation hold, int delta) {
+        return occupancy.addHeldAsync(hold.getTrainKey(), hold.getExpiresAt() / holdBucketMillis, withTotal(hold.getCar(), delta));
+    }
+
+    private static Map<Integer, Integer> withTotal(int car, int delta) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        deltas.put(car, delta);
+        deltas.put(TRAIN_TOTAL, delta);
+        return deltas;
+    }
+
+    public CompletableFuture<Integer> getOrderedSeatsAsync(int trainId, long tripDate, int car) {
+        TrainKey key = new TrainKey(trainId, tripDate);
+        if (orderedReads == null) {
+            return occupancy.findOrderedAsync(key, car, ConsistencyProfile.BOOKING);
+        }
+        return orderedReads.get(new CarKey(key, car), () -> occupancy.findOrderedAsync(key, car, ConsistencyProfile.BOOKING));
+    }
+
+    /**
+     * Ordered seats of a car for the check before booking {@code seats} more of its {@code capacity}, read
+     * adaptively.
+     */
+    public CompletableFuture<Integer> getOrderedSeatsForBookingAsync(int trainId, long tripDate, int car, int capacity, int seats) {
+        TrainKey key = new TrainKey(trainId, tripDate);
+        return readForBooking(profile -> occupancy.findOrderedAsync(key, car, profile), Integer::intValue, capacity, seats);
+    }
+
+    /**
+     * Ordered and held seats of a car for the check before holding {@code seats} more of its {@code capacity},
+     * read adaptively.
+     */
+    public CompletableFuture<SeatOccupancy> getCarOccupancyForBookingAsync(int trainId, long tripDate, int car, int capacity, int seats) {
+        return readForBooking(profile -> getCarOccupancyAsync(trainId, tripDate, car, profile), SeatOccupancy::getTaken, capacity, seats);
+    }
+
+    private <T> CompletableFuture<T> readForBooking(Function<ConsistencyProfile, CompletableFuture<T>> read, ToIntFunction<T> taken,
+                                                    int capacity, int seats) {
+        if (!adaptiveConsistency) {
+            return read.apply(ConsistencyProfile.BOOKING);
+        }
+        int margin = (capacity * adaptiveMarginPercent + 99) / 100;
+        return read.apply(ConsistencyProfile.CHECK).thenCompose(relaxed -> {
+            if (capacity - taken.applyAsInt(relaxed) - seats >= margin) {
+                relaxedChecks.increment();
+                return CompletableFuture.completedFuture(relaxed);
+            }
+            escalatedChecks.increment();
+            return read.apply(ConsistencyProfile.BOOKING);
+        });
+    }
+
+    /**
+     * Availability checks answered at the {@link ConsistencyProfile#CHECK} level, and those read again at the
+     * {@link ConsistencyProfile#BOOKING} level because the car was close to full.
+     */
+    public long getRelaxedChecks() {
+        return relaxedChecks.sum();
+    }
+
+    public long getEscalatedChecks() {
+        return escalatedChecks.sum();
+    }
+
+    /**
+     * Ordered seats indexed by car number, with the train total at {@link #TRAIN_TOTAL}.
+     */
+    public CompletableFuture<int[]> getOrderedSeatsPerCarAsync(int trainId, long tripDate, int cars) {
+        return occupancy.findAllOrderedAsync(new TrainKey(trainId, tripDate)).thenApply(ordered -> perCar(ordered, cars));
+    }
+
+    /**
+     * Held seats of the holds that have not expired, keyed by car with the train total at {@link #TRAIN_TOTAL}.
+     */
+    public CompletableFuture<Map<Integer, Integer>> getHeldSeatsAsync(int trainId, long tripDate) {
+        return getHeldSeatsAsync(trainId, tripDate, ConsistencyProfile.BOOKING);
+    }
+
+    private CompletableFuture<Map<Integer, Integer>> getHeldSeatsAsync(int trainId, long tripDate, ConsistencyProfile profile) {
+        return occupancy.findHeldAsync(new TrainKey(trainId, tripDate), System.currentTimeMillis() / holdBucketMillis + 1, profile);
+    }
+
+    public CompletableFuture<SeatOccupancy> getCarOccupancyAsync(int trainId, long tripDate, int car) {
+        return getCarOccupancyAsync(trainId, tripDate, car, ConsistencyProfile.BOOKING);
+    }
+
+    private CompletableFuture<SeatOccupancy> getCarOccupancyAsync(int trainId, long tripDate, int car, ConsistencyProfile profile) {
+        return occupancy.findOrderedAsync(new TrainKey(trainId, tripDate), car, profile).thenCombine(getHeldSeatsAsync(trainId, tripDate, profile),
+                (ordered, held) -> new SeatOccupancy(ordered, held.getOrDefault(car, 0)));
+    }
+
+    public CompletableFuture<SeatOccupancy> getTrainOccupancyAsync(int trainId, long tripDate) {
+        return getCarOccupancyAsync(trainId, tripDate, TRAIN_TOTAL);
+    }
+
+    /**
+     * Reads the ordered and the held counters of the whole train concurrently. The result is indexed by car
+     * number, with the train totals at {@link #TRAIN_TOTAL}; cars without counters are {@link SeatOccupancy#EMPTY}.
+     */
+    public CompletableFuture<SeatOccupancy[]> getOccupancyPerCarAsync(int trainId, long tripDate, int cars) {
+        return getOrderedSeatsPerCarAsync(trainId, tripDate, cars).thenCombine(getHeldSeatsAsync(trainId, tripDate), (ordered, held) -> {
+            int[] heldPerCar = perCar(held, cars);
+            SeatOccupancy[] occupancy = new SeatOccupancy[cars + 1];
+            for (int car = 0; car <= cars; car++) {
+                occupancy[car] = ordered[car] == 0 && heldPerCar[car] == 0 ? SeatOccupancy.EMPTY : new SeatOccupancy(ordered[car], heldPerCar[car]);
+            }
+            return occupancy;
+        });
+    }
+
+    private static int[] perCar(Map<Integer, Integer> stored, int cars) {
+        int[] perCar = new int[cars + 1];
+        for (Map.Entry<Integer, Integer> entry : stored.entrySet()) {
+            if (entry.getKey() >= 0 && entry.getKey() <= cars) {
+                perCar[entry.getKey()] = entry.getValue();
+            }
+        }
+        return perCar;
+    }
+
+    /**
+     * Recomputes the ordered counters of one train from the orders table. Counters cannot be overwritten, so
+     * the difference between the stored and the actual value is applied instead. Held counters need no repair:
+     * any drift disappears with the bucket it was made in.
+     */
+    public void rebuildOccupancy(int trainId, long tripDate) {
+        TrainKey key = new TrainKey(trainId, tripDate);
+        Map<Integer, Integer> ordered = new HashMap<>(orders.sumSeatsByCar(key));
+        ordered.put(TRAIN_TOTAL, ordered.values().stream().mapToInt(Integer::intValue).sum());
+
+        Map<Integer, Integer> stored = AsyncSupport.join(occupancy.findAllOrderedAsync(key));
+
+        Set<Integer> cars = new HashSet<>(stored.keySet());
+        cars.addAll(ordered.keySet());
+
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (int car : cars) {
+            int delta = ordered.getOrDefault(car, 0) - stored.getOrDefault(car, 0);
+            if (delta != 0) {
+                deltas.put(car, delta);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            AsyncSupport.join(addOrderedAsync(key, deltas));
+            logger.info("Occupancy of train " + trainId + " on " + new Date(tripDate) + " repaired");
+        }
+    }
+
+    /**
+     * Runs {@link #rebuildOccupancy(int, long)} for every train and returns the number of trains checked.
+     */
+    public int rebuildAllOccupancy() {
+        List<TrainKey> keys = trains.findAllKeys();
+        for (TrainKey key : keys) {
+            rebuildOccupancy(key.getTrainId(), key.getTripDate());
+        }
+        logger.info("Occupancy rebuilt for " + keys.size() + " trains");
+        return keys.size();
+    }
+
+    public void deleteAllOrdered() {
+        occupancy.deleteAllOrdered();
+        if (orderedReads != null) {
+            orderedReads.invalidateAll();
+        }
+        logger.info("All ordered seat counters deleted");
+    }
+
+    public void deleteAllHeld() {
+        occupancy.deleteAllHeld();
+        logger.info("All held seat counters deleted");
+    }
+
+    private static final class CarKey {
+        private final TrainKey train;
+        private final int car;
+
+        CarKey(TrainKey train, int car) {
+            this.train = train;
+            this.car = car;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof CarKey && car == ((CarKey) o).car && train.equals(((CarKey) o).train));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(train, car);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.trains.backend;
+
+import com.trains.model.Order;
+import com.trains.model.TrainKey;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Storage of orders (the orders table). Saving an order also writes its orders_per_user row, so both
+ * tables can be written in one batch.
+ */
+public interface OrderRepository {
+
+    List<Order> findAll();
+
+    /**
+     * Hands every order to {@code consumer} as it is read, without collecting the table, and completes with the
+     * number of rows. The consumer may be called concurrently from several threads and must not block.
+     */
+    CompletableFuture<Long> scanAsync(Consumer<? super Order> consumer);
+
+    CompletableFuture<Void> saveAsync(Order order, OrderWriteMode mode);
+
+    /**
+     * Writes orders that all belong to the train {@code key}, grouped by partition: one unlogged batch for the
+     * orders partition and one batch per user for the per-user tables, sent concurrently. The per-user batches
+     * are logged with {@link OrderWriteMode#LOGGED_BATCH}, so a user's rows are applied together, but the orders
+     * rows may be applied without them. Callers keep the list small enough for a single batch.
+     */
+    CompletableFuture<Void> saveAllAsync(TrainKey key, List<Order> orders, OrderWriteMode mode);
+
+    /**
+     * Ordered seats of one train summed per car, computed from the order rows.
+     */
+    Map<Integer, Integer> sumSeatsByCar(TrainKey key);
+
+    void deleteAll();
+}
@@ -1,36 +1,63 @@
 package com.trains.backend;
 
-import com.datastax.driver.core.BoundStatement;
-import com.datastax.driver.core.PreparedStatement;
-import com.datastax.driver.core.ResultSet;
-import com.datastax.driver.core.Row;
-import com.datastax.driver.core.Session;
-import com.datastax.driver.core.ConsistencyLevel;
+import com.trains.backend.metrics.BackendMetrics;
+import com.trains.backend.metrics.OperationTimer;
+import com.trains.model.AllocationPlan;
+import com.trains.model.Order;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.concurrent.Executor;
 
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
-    private Session session;
-    private static PreparedStatement SELECT_ALL_FROM_ORDERS;
-    private static PreparedStatement INSERT_INTO_ORDERS;
-    private static PreparedStatement DELETE_ALL_FROM_ORDERS;
-    private static PreparedStatement SELECT_SUM_SEATS_AMOUNT_BY_CAR;
-    private static PreparedStatement SELECT_SUM_SEATS_AMOUNT;
+    private OrderRepository orders;
+    private SeatLedgerRepository seatLedger;
 
     private UserOrderService userOrderService;
     private TrainService trainService;
+    private OccupancyService occupancyService;
+    private volatile OrderWriteMode orderWriteMode;
+    private volatile AllocationStrategy allocationStrategy;
+    private OperationTimer upsertOrderTimer;
+    private BookingCoordinator bookingCoordinator;
+    private SeatClaimer seatClaimer;
 
-    public OrderService(Session session) {
-        this.session = session;
-        prepareStatements();
-        userOrderService = new UserOrderService(session);
-        trainService = new TrainService(session);
+    public OrderService(OrderRepository orders, SeatLedgerRepository seatLedger, TrainService trainService, UserOrderService userOrderService,
+                        OccupancyService occupancyService, BackendConfig config, BackendMetrics metrics, Executor executor) {
+        this.orders = orders;
+        this.seatLedger = seatLedger;
+        this.trainService = trainService;
+        this.userOrderService = userOrderService;
+        this.occupancyService = occupancyService;
+        this.orderWriteMode = OrderWriteMode.valueOf(config.getString("order_write_mode", OrderWriteMode.LOGGED_BATCH.name()).toUpperCase());
+        this.allocationStrategy = AllocationStrategy.valueOf(config.getString("allocation_strategy", AllocationStrategy.BEST_FIT.name()).toUpperCase());
+        this.upsertOrderTimer = metrics.operation("upsertOrder");
+        // Escrow booking allocates from leases inside the coordinator, so it turns the coordinator on.
+        boolean escrow = config.getBoolean("seat_escrow_enabled", false);
+        if (config.getBoolean("seat_cas_enabled", false)) {
+            if (escrow) {
+                throw new IllegalArgumentException("seat_escrow_enabled and seat_cas_enabled cannot both be set");
+            }
+            this.seatClaimer = new SeatClaimer(seatLedger, occupancyService, config, executor);
+        } else if (escrow || config.getBoolean("booking_coordinator_enabled", true)) {
+            this.bookingCoordinator = new BookingCoordinator(trainService, occupancyService,
+                    escrow ? new SeatEscrow(seatLedger, occupancyService, config) : null,
+                    (key, group) -> group.size() == 1 ? orders.saveAsync(group.get(0), orderWriteMode) : orders.saveAllAsync(key, group, orderWriteMode),
+                    config, executor);
+        }
     }
 
     public UserOrderService getUserOrderService() {
@@ -41,85 +68,298 @@ public class OrderService {
         return trainService;
     }
 
-    private void prepareStatements() {
-        SELECT_ALL_FROM_ORDERS = session.prepare("SELECT * FROM orders;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public OccupancyService getOccupancyService() {
+        return occupancyService;
+    }
 
-        INSERT_INTO_ORDERS = session.prepare("INSERT INTO orders (order_id, train_id, trip_date, user_id, car, seats_amount) VALUES (?, ?, ?, ?, ?, ?);").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public OrderWriteMode getOrderWriteMode() {
+        return orderWriteMode;
+    }
 
-        DELETE_ALL_FROM_ORDERS = session.prepare("TRUNCATE orders;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public void setOrderWriteMode(OrderWriteMode orderWriteMode) {
+        this.orderWriteMode = orderWriteMode;
+    }
 
-        SELECT_SUM_SEATS_AMOUNT = session.prepare("SELECT SUM(seats_amount) FROM orders WHERE train_id = ? AND trip_date = ?").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public AllocationStrategy getAllocationStrategy() {
+        return allocationStrategy;
+    }
 
-        SELECT_SUM_SEATS_AMOUNT_BY_CAR = session.prepare("SELECT SUM(seats_amount) FROM orders WHERE train_id = ? AND trip_date = ? AND car = ?").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public void setAllocationStrategy(AllocationStrategy allocationStrategy) {
+        this.allocationStrategy = allocationStrategy;
+    }
 
+    /**
+     * Seats claimed, claims that lost a conditional update and orders moved to another car by the
+     * {@link SeatClaimer}; all zero unless {@code seat_cas_enabled}.
+     */
+    public long getSeatClaims() {
+        return seatClaimer != null ? seatClaimer.getClaims() : 0;
     }
 
-    public String selectAllOrders() {
-        StringBuilder builder = new StringBuilder();
-        BoundStatement bs = new BoundStatement(SELECT_ALL_FROM_ORDERS);
-        ResultSet rs = session.execute(bs);
+    public long getSeatClaimConflicts() {
+        return seatClaimer != null ? seatClaimer.getConflicts() : 0;
+    }
 
-        for (Row row : rs) {
-            UUID orderId = row.getUUID("order_id");
-            int trainId = row.getInt("train_id");
-            Date tripDate = row.getTimestamp("trip_date");
-            UUID userId = row.getUUID("user_id");
-            int car = row.getInt("car");
-            int seatsAmount = row.getInt("seats_amount");
+    public long getSeatClaimSpills() {
+        return seatClaimer != null ? seatClaimer.getSpills() : 0;
+    }
 
-            builder.append(String.format("Order ID: %s, Train ID: %d, Trip Date: %s, User ID: %s, Car: %d, Seats Amount: %d\n",
-                    orderId, trainId, tripDate, userId, car, seatsAmount));
-        }
+    public List<Order> selectAllOrders() {
+        return orders.findAll();
+    }
+
+    /**
+     * Streams every order to {@code consumer} without collecting the table, e.g. for reports and
+     * reconciliation; see {@link OrderRepository#scanAsync(Consumer)}.
+     */
+    public CompletableFuture<Long> scanAllOrdersAsync(Consumer<? super Order> consumer) {
+        return orders.scanAsync(consumer);
+    }
+
+    public boolean upsertOrder(UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount) {
+        return AsyncSupport.join(upsertOrderAsync(new Order(orderId, trainId, tripDate, userId, car, seatsAmount)));
+    }
+
+    /**
+     * Checks the car occupancy and the train definition, then writes the order to the order tables. Completes
+     * with {@code false} when the order was rejected. With {@code booking_coordinator_enabled} the check and
+     * the write are serialized per train by a {@link BookingCoordinator}; otherwise concurrent orders for the
+     * same car can both pass the check. With {@code seat_escrow_enabled} the seats come from this instance's
+     * {@link SeatEscrow} lease instead of an occupancy read. With {@code seat_cas_enabled} each order claims
+     * its seats with a conditional update through a {@link SeatClaimer} and may be moved to another car of the
+     * train when its car is contended.
+     */
+    public CompletableFuture<Boolean> upsertOrderAsync(Order order) {
+        return upsertOrderTimer.timeAsync(() -> {
+            if (seatClaimer != null) {
+                return claimAndInsertAsync(order);
+            }
+            return bookingCoordinator != null ? bookingCoordinator.submit(order) : validateAndInsertAsync(Collections.singletonList(order));
+        });
+    }
+
+    private CompletableFuture<Boolean> claimAndInsertAsync(Order order) {
+        return trainService.getTrainAsync(order.getTrainId(), order.getTripDate()).thenCompose(train -> {
+            if (train == null) {
+                logger.warn("Train " + order.getTrainId() + " on " + new Date(order.getTripDate()) + " not found");
+                return CompletableFuture.completedFuture(false);
+            }
+            if (!train.isValidCar(order.getCar())) {
+                logger.warn("Invalid car number " + order.getCar() + " for train " + order.getTrainId() + " on " + new Date(order.getTripDate()));
+                return CompletableFuture.completedFuture(false);
+            }
+            return seatClaimer.claim(train, order.getCar(), order.getSeatsAmount(), allocationStrategy).thenCompose(car -> {
+                if (car == 0) {
+                    logger.warn("Not enough seats available for order " + order.getOrderId());
+                    return CompletableFuture.completedFuture(false);
+                }
+                Order claimed = car == order.getCar() ? order
+                        : new Order(order.getOrderId(), train.getKey(), order.getUserId(), car, order.getSeatsAmount());
+                return insertOrderAsync(claimed).thenApply(ignored -> true);
+            });
+        });
+    }
+
+    /**
+     * Claims every car of a plan in that car, without spill-over. When one claim fails the others are released
+     * and nothing is written.
+     */
+    private CompletableFuture<Boolean> claimAllAndInsertAsync(TrainKey key, List<Order> parts) {
+        return trainService.getTrainAsync(key.getTrainId(), key.getTripDate()).thenCompose(train -> {
+            if (train == null) {
+                logger.warn("Train " + key.getTrainId() + " on " + new Date(key.getTripDate()) + " not found");
+                return CompletableFuture.completedFuture(false);
+            }
+            for (Order order : parts) {
+                if (!train.isValidCar(order.getCar())) {
+                    logger.warn("Invalid car number " + order.getCar() + " for train " + order.getTrainId() + " on " + new Date(order.getTripDate()));
+                    return CompletableFuture.completedFuture(false);
+                }
+            }
+            List<CompletableFuture<Boolean>> claims = new ArrayList<>();
+            for (Order order : parts) {
+                claims.add(seatClaimer.claimInCar(train, order.getCar(), order.getSeatsAmount()).exceptionally(error -> {
+                    logger.warn("Claim for car " + order.getCar() + " of order " + order.getOrderId() + " failed: " + error);
+                    return false;
+                }));
+            }
+            return CompletableFuture.allOf(claims.toArray(new CompletableFuture[0])).thenCompose(ignored -> {
+                if (claims.stream().allMatch(CompletableFuture::join)) {
+                    return insertOrdersAsync(key, parts).thenApply(inserted -> true);
+                }
+                logger.warn("Not enough seats available for order " + parts.get(0).getOrderId());
+                List<CompletableFuture<Void>> releases = new ArrayList<>();
+                for (int i = 0; i < parts.size(); i++) {
+                    if (claims.get(i).join()) {
+                        releases.add(seatClaimer.release(key, parts.get(i).getCar(), parts.get(i).getSeatsAmount()));
+                    }
+                }
+                return CompletableFuture.allOf(releases.toArray(new CompletableFuture[0])).thenApply(released -> false);
+            });
+        });
+    }
+
+    /**
+     * Checks every order against its car and writes them only if all fit. The occupancy read depends on the
+     * car's capacity in adaptive mode, so it follows the train lookup, which is normally answered by the train
+     * cache.
+     */
+    private CompletableFuture<Boolean> validateAndInsertAsync(List<Order> parts) {
+        Order first = parts.get(0);
+        CompletableFuture<Train> selectedTrain = trainService.getTrainAsync(first.getTrainId(), first.getTripDate());
+
+        return selectedTrain.thenCompose(train -> {
+            if (train == null) {
+                logger.warn("Train " + first.getTrainId() + " on " + new Date(first.getTripDate()) + " not found");
+                return CompletableFuture.completedFuture(false);
+            }
+            List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+            for (Order order : parts) {
+                checks.add(validateAsync(train, order));
+            }
+            return CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).thenCompose(ignored -> {
+                if (!checks.stream().allMatch(CompletableFuture::join)) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return insertOrdersAsync(train.getKey(), parts).thenApply(inserted -> true);
+            });
+        });
+    }
 
-        return builder.toString();
+    private CompletableFuture<Boolean> validateAsync(Train train, Order order) {
+        if (!train.isValidCar(order.getCar())) {
+            logger.warn("Invalid car number " + order.getCar() + " for train " + order.getTrainId() + " on " + new Date(order.getTripDate()));
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Integer> takenSeats = occupancyService.getOrderedSeatsForBookingAsync(order.getTrainId(), order.getTripDate(),
+                order.getCar(), train.getSeatsPerCar(), order.getSeatsAmount());
+        return takenSeats.thenApply(reservedSeats -> {
+            int availableSeats = train.getSeatsPerCar() - reservedSeats;
+            if (availableSeats < order.getSeatsAmount()) {
+                logger.warn("Not enough seats available for order " + order.getOrderId());
+                return false;
+            }
+            return true;
+        });
     }
 
-    public void upsertOrder(UUID orderId, int trainId, Timestamp tripDate, UUID userId, int car, int seatsAmount) {
-        int reservedSeats = getTakenSeatsByCar(trainId, tripDate.toString(), car);
-        String selectedTrain = trainService.selectTrain(trainId, tripDate);
-        if (selectedTrain == null) {
-            System.out.println("Train not found");
-            return;
+    /**
+     * Writes the rows of several cars of one order as one batch and their counters as one counter batch.
+     */
+    private CompletableFuture<Void> insertOrdersAsync(TrainKey key, List<Order> parts) {
+        if (parts.size() == 1) {
+            return insertOrderAsync(parts.get(0));
+        }
+        Map<Integer, Integer> seatsByCar = new HashMap<>();
+        for (Order order : parts) {
+            seatsByCar.merge(order.getCar(), order.getSeatsAmount(), Integer::sum);
         }
+        CompletableFuture<Void> occupancy = occupancyService.addOrderedSeatsAsync(key, seatsByCar);
+        CompletableFuture<Void> inserted = orders.saveAllAsync(key, parts, orderWriteMode)
+                .thenRun(() -> logger.info("Order " + parts.get(0).getOrderId() + " upserted"));
+        return CompletableFuture.allOf(inserted, occupancy);
+    }
+
+    /**
+     * Writes both order rows according to {@link #getOrderWriteMode()}. Counter updates cannot share a batch
+     * with regular rows, so the occupancy counters are sent alongside as a separate request.
+     */
+    private CompletableFuture<Void> insertOrderAsync(Order order) {
+        CompletableFuture<Void> occupancy = occupancyService.addOrderedSeatsAsync(order.getTrainId(), order.getTripDate(), order.getCar(), order.getSeatsAmount());
+        CompletableFuture<Void> inserted = orders.saveAsync(order, orderWriteMode)
+                .thenRun(() -> logger.info("Order " + order.getOrderId() + " upserted"));
+        return CompletableFuture.allOf(inserted, occupancy);
+    }
+
+    public int getTakenSeats(int trainId, long tripDate) {
+        return AsyncSupport.join(getTakenSeatsAsync(trainId, tripDate));
+    }
+
+    public CompletableFuture<Integer> getTakenSeatsAsync(int trainId, long tripDate) {
+        return occupancyService.getOrderedSeatsAsync(trainId, tripDate, OccupancyService.TRAIN_TOTAL);
+    }
+
+    public int getTakenSeatsByCar(int trainId, long tripDate, int car) {
+        return AsyncSupport.join(getTakenSeatsByCarAsync(trainId, tripDate, car));
+    }
 
-        int seatsPerCar = Integer.parseInt(selectedTrain.split(",")[3].split(": ")[1]);
-        int availableSeats = seatsPerCar - reservedSeats;
-         if (availableSeats >= seatsAmount) {
-            if (trainService.isValidCar(trainId, tripDate, car)) {
-                BoundStatement bs = new BoundStatement(INSERT_INTO_ORDERS);
-                bs.bind(orderId, trainId, tripDate, userId, car, seatsAmount);
-                session.execute(bs);
-                logger.info("Order " + orderId + " upserted");
-                userOrderService.upsertUserOrder(orderId, trainId, tripDate, userId, car, seatsAmount);
-                // resolveConflictsForAllCars(trainId, tripDate); // Ensure conflicts are resolved after insertion
-            } else {
-                logger.warn("Invalid car number " + car + " for train " + trainId + " on " + tripDate);
+    public CompletableFuture<Integer> getTakenSeatsByCarAsync(int trainId, long tripDate, int car) {
+        return occupancyService.getOrderedSeatsAsync(trainId, tripDate, car);
+    }
+
+    /**
+     * Returns the ordered seats indexed by car number, with the train total at index 0, from a single partition
+     * read. Returns an empty array when the train does not exist.
+     */
+    public int[] getTakenSeatsPerCar(int trainId, long tripDate) {
+        Train train = trainService.selectTrain(trainId, tripDate);
+        return train != null ? AsyncSupport.join(getTakenSeatsPerCarAsync(train)) : new int[0];
+    }
+
+    public CompletableFuture<int[]> getTakenSeatsPerCarAsync(Train train) {
+        return occupancyService.getOrderedSeatsPerCarAsync(train.getTrainId(), train.getTripDate(), train.getCars());
+    }
+
+    /**
+     * Plans an order of {@code seats} seats with the configured {@link AllocationStrategy}. Returns {@code null}
+     * when the train does not have enough free seats.
+     */
+    public AllocationPlan planOrder(Train train, int seats) {
+        return SeatAllocationPlanner.plan(train, AsyncSupport.join(getTakenSeatsPerCarAsync(train)), seats, allocationStrategy);
+    }
+
+    public boolean placeOrder(UUID orderId, UUID userId, AllocationPlan plan) {
+        return AsyncSupport.join(placeOrderAsync(orderId, userId, plan));
+    }
+
+    /**
+     * Books the plan as one order row per car, all or nothing. The cars are checked again the way
+     * {@link #upsertOrderAsync(Order)} checks one car, and if one of them filled since the plan was made, none
+     * is written and the result is {@code false}.
+     */
+    public CompletableFuture<Boolean> placeOrderAsync(UUID orderId, UUID userId, AllocationPlan plan) {
+        TrainKey key = plan.getTrainKey();
+        List<Order> parts = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : plan.getSeatsByCar().entrySet()) {
+            parts.add(new Order(orderId, key, userId, entry.getKey(), entry.getValue()));
+        }
+        return upsertOrderTimer.timeAsync(() -> {
+            if (seatClaimer != null) {
+                return claimAllAndInsertAsync(key, parts);
             }
-         } else {
-            logger.warn("Not enough seats available for order " + orderId);
-         }
+            return bookingCoordinator != null ? bookingCoordinator.submitAll(key, parts) : validateAndInsertAsync(parts);
+        });
     }
 
-    public int getTakenSeats(int trainId, String tripDate) {
-        BoundStatement bs = new BoundStatement(SELECT_SUM_SEATS_AMOUNT);
-        bs.bind(trainId, Timestamp.valueOf(tripDate));
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        return row != null ? row.getInt(0) : 0;
+    /**
+     * Writes orders of one train that are known to be valid, e.g. from a bulk import: no availability read and
+     * no train lookup, the rows go out as one unlogged batch per partition and the counters as one counter batch.
+     */
+    public CompletableFuture<Void> importOrdersAsync(TrainKey key, List<Order> imported) {
+        Map<Integer, Integer> seatsByCar = new HashMap<>();
+        for (Order order : imported) {
+            seatsByCar.merge(order.getCar(), order.getSeatsAmount(), Integer::sum);
+        }
+        return CompletableFuture.allOf(orders.saveAllAsync(key, imported, OrderWriteMode.UNLOGGED_BATCH), occupancyService.addOrderedSeatsAsync(key, seatsByCar));
     }
 
-    public int getTakenSeatsByCar(int trainId, String tripDate, int car) {
-        BoundStatement bs = new BoundStatement(SELECT_SUM_SEATS_AMOUNT_BY_CAR);
-        bs.bind(trainId, Timestamp.valueOf(tripDate), car);
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        return row != null ? row.getInt(0) : 0;
+    /**
+     * Returns the seats this instance has leased for escrow booking.
+     */
+    public void close() {
+        if (bookingCoordinator != null) {
+            bookingCoordinator.close(5_000);
+        }
     }
 
     public void deleteAllOrders() {
-        BoundStatement bs = new BoundStatement(DELETE_ALL_FROM_ORDERS);
-        session.execute(bs);
+        orders.deleteAll();
+        seatLedger.deleteAll();
+        if (bookingCoordinator != null) {
+            bookingCoordinator.clearLeases();
+        }
         logger.info("All orders deleted");
         userOrderService.deleteAllUsersOrders();
+        occupancyService.deleteAllOrdered();
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.trains.backend;
+
+/**
+ * How an order is written to orders and to the per-user tables, orders_per_user and orders_by_user.
+ */
+public enum OrderWriteMode {
+    /** Independent inserts; the tables can diverge if one of them fails. */
+    SEPARATE,
+    /** One round trip, but no guarantee that both rows are applied. */
+    UNLOGGED_BATCH,
+    /** One round trip; the batch log guarantees that all rows are eventually applied. */
+    LOGGED_BATCH
+}
@@ -0,0 +1,33 @@
+package com.trains.backend;
+
+import com.trains.model.Reservation;
+
+import java.util.UUID;
+
+/**
+ * Storage of seat holds (the reservation_holds table). Every hold carries an expiry and is written with a
+ * matching TTL, so abandoned holds disappear on their own; holds are closed by overwriting their state rather
+ * than by deleting them.
+ */
+public interface ReservationRepository {
+
+    /**
+     * Returns {@code null} unless the hold exists, is still {@link HoldState#HELD} and has not expired.
+     */
+    Reservation find(UUID resId);
+
+    /**
+     * Writes a {@link HoldState#HELD} hold that expires at {@link Reservation#getExpiresAt()}.
+     */
+    void save(Reservation reservation);
+
+    void updateSeats(Reservation reservation, int seatsAmount);
+
+    /**
+     * Moves the hold to {@code state} if it is still in {@code expected} and has not expired, and returns whether
+     * it was moved. Of concurrent callers moving the same hold out of a state, exactly one succeeds.
+     */
+    boolean changeState(Reservation reservation, HoldState expected, HoldState state);
+
+    void deleteAll();
+}
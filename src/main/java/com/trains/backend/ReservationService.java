@@ -1,126 +1,161 @@
 package com.trains.backend;
 
-import com.datastax.driver.core.BoundStatement;
-import com.datastax.driver.core.PreparedStatement;
-import com.datastax.driver.core.ResultSet;
-import com.datastax.driver.core.Row;
-import com.datastax.driver.core.Session;
-import com.datastax.driver.core.ConsistencyLevel;
+import com.trains.backend.metrics.BackendMetrics;
+import com.trains.backend.metrics.OperationTimer;
+import com.trains.model.Reservation;
+import com.trains.model.TrainKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Timestamp;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class ReservationService {
     private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
 
-    private Session session;
-    private static PreparedStatement INSERT_INTO_RESERVATIONS;
-    private static PreparedStatement DELETE_FROM_RESERVATIONS;
-    private static PreparedStatement DELETE_ALL_FROM_RESERVATIONS;
-    private static PreparedStatement SELECT_SUM_RESERVED_SEATS_BY_CAR;
-    private static PreparedStatement SELECT_RESERVATIONS_BY_CAR;
-    private static PreparedStatement SELECT_RESERVED_SEATS;
-    private static PreparedStatement SELECT_RESERVATION;
+    private ReservationRepository reservations;
 
     private OrderService orderService;
-
-    public ReservationService(Session session) {
-        this.session = session;
-        prepareStatements();
-        orderService = new OrderService(session);
+    private OccupancyService occupancyService;
+    private OperationTimer reserveSeatsTimer;
+    private OperationTimer confirmReservationTimer;
+    private Executor executor;
+    private long holdTtlMillis;
+
+    public ReservationService(ReservationRepository reservations, OrderService orderService, OccupancyService occupancyService, BackendConfig config,
+                              BackendMetrics metrics, Executor executor) {
+        this.reservations = reservations;
+        this.orderService = orderService;
+        this.occupancyService = occupancyService;
+        this.reserveSeatsTimer = metrics.operation("reserveSeats");
+        this.confirmReservationTimer = metrics.operation("confirmReservation");
+        this.executor = executor;
+        this.holdTtlMillis = TimeUnit.SECONDS.toMillis(config.getLong("hold_ttl_seconds", 900));
     }
+
      public OrderService getOrderService() {
         return orderService;
     }
 
-    private void prepareStatements() {
-        INSERT_INTO_RESERVATIONS = session.prepare("INSERT INTO reservations (res_id, train_id, trip_date, user_id, car, seats_amount) VALUES (?, ?, ?, ?, ?, ?);").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
-
-        DELETE_FROM_RESERVATIONS = session.prepare("DELETE FROM reservations WHERE train_id = ? AND trip_date = ? AND car = ? AND res_id = ?;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
-
-        DELETE_ALL_FROM_RESERVATIONS = session.prepare("TRUNCATE reservations;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
-
-        SELECT_RESERVED_SEATS = session.prepare("SELECT SUM(seats_amount) FROM reservations WHERE train_id = ? AND trip_date = ?;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public long getHoldTtlMillis() {
+        return holdTtlMillis;
+    }
 
-        SELECT_SUM_RESERVED_SEATS_BY_CAR = session.prepare("SELECT SUM(seats_amount) FROM reservations WHERE train_id = ? AND trip_date = ? AND car = ?;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public void setHoldTtlMillis(long holdTtlMillis) {
+        this.holdTtlMillis = holdTtlMillis;
+    }
 
-        SELECT_RESERVATIONS_BY_CAR = session.prepare("SELECT res_id, seats_amount FROM reservations WHERE train_id = ? AND trip_date = ? AND car = ?").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public int reserveSeats(UUID resId, int trainId, long tripDate, UUID userId, int car, int seatsAmount, int CarCapacity) {
+        return reserveSeats(new Reservation(resId, trainId, tripDate, userId, car, seatsAmount), CarCapacity);
+    }
 
-        SELECT_RESERVATION = session.prepare("SELECT * FROM reservations WHERE train_id = ? AND trip_date = ? AND car = ? AND res_id = ?;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public int reserveSeats(Reservation reservation, int carCapacity) {
+        return reserveSeatsTimer.time(() -> holdSeats(reservation, carCapacity));
+    }
 
+    /**
+     * Runs {@link #reserveSeats(Reservation, int)} on the session executor, one thread per request in
+     * {@link ExecutorMode#VIRTUAL} mode.
+     */
+    public CompletableFuture<Integer> reserveSeatsAsync(Reservation reservation, int carCapacity) {
+        return CompletableFuture.supplyAsync(() -> reserveSeats(reservation, carCapacity), executor);
     }
 
-    public int reserveSeats(UUID resId, int trainId, Timestamp tripDate, UUID userId, int car, int seatsAmount, int CarCapacity) {
-        BoundStatement bs = new BoundStatement(SELECT_SUM_RESERVED_SEATS_BY_CAR);
-        bs.bind(trainId, tripDate, car);
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        int numOfResSeats = row != null ? row.getInt(0) : 0;
-        int numOfSeats = orderService.getTakenSeatsByCar(trainId, tripDate.toString(), car);
-        if (numOfSeats + seatsAmount + numOfResSeats > CarCapacity) {
-            logger.warn("Not enough seats available for reservation " + resId);
+    private int holdSeats(Reservation reservation, int carCapacity) {
+        SeatOccupancy occupancy = AsyncSupport.join(occupancyService.getCarOccupancyForBookingAsync(reservation.getTrainId(), reservation.getTripDate(),
+                reservation.getCar(), carCapacity, reservation.getSeatsAmount()));
+        if (occupancy.getTaken() + reservation.getSeatsAmount() > carCapacity) {
+            logger.warn("Not enough seats available for reservation " + reservation.getResId());
             return 0;
         }
-        bs = new BoundStatement(INSERT_INTO_RESERVATIONS);
-        bs.bind(resId, trainId, tripDate, userId, car, seatsAmount);
-        session.execute(bs);
+        Reservation hold = reservation.withExpiresAt(occupancyService.holdExpiry(System.currentTimeMillis(), holdTtlMillis));
+        reservations.save(hold);
+        AsyncSupport.join(occupancyService.addHeldSeatsAsync(hold, hold.getSeatsAmount()));
         //logger.info("Reservation " + resId + " created");
         return 1;
     }
 
-    public int confirmReservation(UUID resId, UUID orderId, int trainId, Timestamp tripDate, UUID userId, int car, int seatsAmount, OrderService orderService) {
-        BoundStatement bs = new BoundStatement(SELECT_RESERVATION);
-        bs.bind(trainId, tripDate, car, resId);
-        Row res = session.execute(bs).one();
+    public int confirmReservation(UUID resId, UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount, OrderService orderService) {
+        return confirmReservationTimer.time(() -> confirmHold(resId, orderId, trainId, tripDate, userId, car, seatsAmount, orderService));
+    }
+
+    public CompletableFuture<Integer> confirmReservationAsync(UUID resId, UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount) {
+        return CompletableFuture.supplyAsync(() -> confirmReservation(resId, orderId, trainId, tripDate, userId, car, seatsAmount, orderService), executor);
+    }
+
+    private int confirmHold(UUID resId, UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount, OrderService orderService) {
+        Reservation res = getReservation(trainId, tripDate, car, resId);
         if (res == null) {
             logger.warn("Reservation " + resId + " not found");
             return 0;
         }
-        orderService.upsertOrder(orderId, trainId, tripDate, userId, car, seatsAmount);
-
-        bs = new BoundStatement(DELETE_FROM_RESERVATIONS);
-        bs.bind(trainId, tripDate, car, resId);
-        session.execute(bs);
+        // Confirming before the order is written lets only one of concurrent confirmations write it.
+        if (!reservations.changeState(res, HoldState.HELD, HoldState.CONFIRMED)) {
+            logger.warn("Reservation " + resId + " was closed meanwhile");
+            return 0;
+        }
+        if (!orderService.upsertOrder(orderId, trainId, tripDate, userId, car, seatsAmount)) {
+            // The hold is opened again, so it can be confirmed again until it expires.
+            reservations.changeState(res, HoldState.CONFIRMED, HoldState.HELD);
+            logger.warn("Order for reservation " + resId + " was rejected");
+            return 0;
+        }
+        AsyncSupport.join(occupancyService.addHeldSeatsAsync(res, -res.getSeatsAmount()));
         //logger.info("Reservation " + resId + " deleted");
         return 1;
     }
 
-    public int getSumReservedSeatsByCar(int trainId, String tripDate, int car) {
-        BoundStatement bs = new BoundStatement(SELECT_SUM_RESERVED_SEATS_BY_CAR);
-        bs.bind(trainId, Timestamp.valueOf(tripDate), car);
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        return row != null ? row.getInt(0) : 0;
+    public int getSumReservedSeatsByCar(int trainId, long tripDate, int car) {
+        return AsyncSupport.join(occupancyService.getHeldSeatsAsync(trainId, tripDate)).getOrDefault(car, 0);
     }
 
-    public int getReservedSeats(int trainId, String tripDate) {
-        BoundStatement bs = new BoundStatement(SELECT_RESERVED_SEATS);
-        bs.bind(trainId, Timestamp.valueOf(tripDate));
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        return row != null ? row.getInt(0) : 0;
+    public int getReservedSeats(int trainId, long tripDate) {
+        return AsyncSupport.join(occupancyService.getHeldSeatsAsync(trainId, tripDate)).getOrDefault(OccupancyService.TRAIN_TOTAL, 0);
     }
 
     public void deleteAllReservations() {
-        BoundStatement bs = new BoundStatement(DELETE_ALL_FROM_RESERVATIONS);
-        session.execute(bs);
+        reservations.deleteAll();
         logger.info("All reservations deleted");
+        occupancyService.deleteAllHeld();
     }
 
-    public void deleteReservation(int trainId, Timestamp tripDate, int car, UUID resId) {
-        BoundStatement bs = new BoundStatement(DELETE_FROM_RESERVATIONS);
-        bs.bind(trainId, tripDate, car, resId);
-        session.execute(bs);
+    public void deleteReservation(int trainId, long tripDate, int car, UUID resId) {
+        Reservation res = getReservation(trainId, tripDate, car, resId);
+        if (res != null) {
+            closeHold(res, HoldState.RELEASED);
+        }
         //logger.info("Reservation " + resId + " deleted due to conflict resolution");
     }
 
-    private void updateReservation(int trainId, Timestamp tripDate, int car, UUID resId, int newSeatsAmount) {
-        String query = "UPDATE reservations SET seats_amount = ? WHERE train_id = ? AND trip_date = ? AND car = ? AND res_id = ?";
-        BoundStatement bs = new BoundStatement(session.prepare(query));
-        bs.bind(newSeatsAmount, trainId, tripDate, car, resId);
-        session.execute(bs);
+    /**
+     * Returns {@code null} when the hold does not exist, has expired or was already closed, or belongs to
+     * another train or car.
+     */
+    public Reservation getReservation(int trainId, long tripDate, int car, UUID resId) {
+        Reservation res = reservations.find(resId);
+        return res != null && res.getTrainKey().equals(new TrainKey(trainId, tripDate)) && res.getCar() == car ? res : null;
+    }
+
+    /**
+     * Overwrites the hold's state instead of deleting the row, and takes its seats back out of the bucket they
+     * were counted in; neither write leaves a tombstone. The seats are only taken out by the caller that closed
+     * the hold.
+     */
+    private void closeHold(Reservation res, HoldState state) {
+        if (reservations.changeState(res, HoldState.HELD, state)) {
+            AsyncSupport.join(occupancyService.addHeldSeatsAsync(res, -res.getSeatsAmount()));
+        }
+    }
+
+    private void updateReservation(int trainId, long tripDate, int car, UUID resId, int newSeatsAmount) {
+        Reservation res = getReservation(trainId, tripDate, car, resId);
+        if (res == null) {
+            return;
+        }
+        reservations.updateSeats(res, newSeatsAmount);
+        AsyncSupport.join(occupancyService.addHeldSeatsAsync(res, newSeatsAmount - res.getSeatsAmount()));
         //logger.info("Reservation " + resId + " updated to " + newSeatsAmount);
     }
 }
@@ -0,0 +1,89 @@
+package com.trains.backend;
+
+import com.trains.model.AllocationPlan;
+import com.trains.model.Train;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Works out up front how many seats of an order go into which car, from one snapshot of the per-car
+ * occupancy, so booking does not need a round trip per car.
+ */
+public final class SeatAllocationPlanner {
+
+    private SeatAllocationPlanner() {
+    }
+
+    /**
+     * @param takenPerCar taken seats indexed by car number, as returned by
+     *                    {@link OrderService#getTakenSeatsPerCar(int, long)}
+     * @return the plan, or {@code null} when the train does not have enough free seats
+     */
+    public static AllocationPlan plan(Train train, int[] takenPerCar, int seats, AllocationStrategy strategy) {
+        int[] free = new int[train.getCars() + 1];
+        int totalFree = 0;
+        for (int car = 1; car <= train.getCars(); car++) {
+            int taken = car < takenPerCar.length ? takenPerCar[car] : 0;
+            free[car] = Math.max(0, train.getSeatsPerCar() - taken);
+            totalFree += free[car];
+        }
+        if (seats <= 0 || totalFree < seats) {
+            return null;
+        }
+
+        Map<Integer, Integer> seatsByCar = new LinkedHashMap<>();
+        int remaining = seats;
+        while (remaining > 0) {
+            int car = chooseCar(free, remaining, strategy);
+            int assigned = Math.min(remaining, free[car]);
+            seatsByCar.put(car, assigned);
+            free[car] = 0;
+            remaining -= assigned;
+        }
+        return new AllocationPlan(train.getKey(), seatsByCar);
+    }
+
+    private static int chooseCar(int[] free, int remaining, AllocationStrategy strategy) {
+        switch (strategy) {
+            case FIRST_FIT:
+                return firstNonEmpty(free);
+            case BEST_FIT:
+                int fitting = smallestFitting(free, remaining);
+                return fitting > 0 ? fitting : largest(free);
+            case LEAST_SPLIT:
+                return largest(free);
+            default:
+                throw new IllegalArgumentException("Unknown allocation strategy " + strategy);
+        }
+    }
+
+    private static int firstNonEmpty(int[] free) {
+        for (int car = 1; car < free.length; car++) {
+            if (free[car] > 0) {
+                return car;
+            }
+        }
+        throw new IllegalStateException("No free seats left");
+    }
+
+    private static int smallestFitting(int[] free, int remaining) {
+        int best = 0;
+        for (int car = 1; car < free.length; car++) {
+            if (free[car] >= remaining && (best == 0 || free[car] < free[best])) {
+                best = car;
+            }
+        }
+        return best;
+    }
+
+    private static int largest(int[] free) {
+        int best = firstNonEmpty(free);
+        for (int car = best + 1; car < free.length; car++) {
+            if (free[car] > free[best]) {
+                best = car;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,192 @@
+package com.trains.backend;
+
+import com.trains.model.AllocationPlan;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compare-and-set seat allocation: an order claims its seats by raising the car's granted seats in the
+ * {@link SeatLedgerRepository} with a conditional update, so two instances can no longer both pass the check
+ * for the last seats of a car. A claim that loses the race waits a random time below a cap that doubles with
+ * every attempt, from {@code seat_cas_backoff_base_micros} up to {@code seat_cas_backoff_max_micros}, and
+ * tries again, at most {@code seat_cas_max_retries} times.
+ *
+ * <p>With {@code seat_cas_spill_over} the retry goes to the car that best fits the order according to the
+ * occupancy counters, leaving out the cars it already lost or found full, instead of contending for the same
+ * car again. The counters only pick the car; the conditional update still decides.
+ *
+ * <p>The ledger is shared with {@link SeatEscrow}, so escrow leases and claims never grant the same seats.
+ * Seats claimed for an order whose write then fails stay granted until the ledger is reset.
+ */
+final class SeatClaimer {
+    private static final Logger logger = LoggerFactory.getLogger(SeatClaimer.class);
+
+    private final SeatLedgerRepository ledger;
+    private final OccupancyService occupancyService;
+    private final Executor executor;
+    private final int maxRetries;
+    private final long backoffBaseMicros;
+    private final long backoffMaxMicros;
+    private final boolean spillOver;
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder spills = new LongAdder();
+
+    SeatClaimer(SeatLedgerRepository ledger, OccupancyService occupancyService, BackendConfig config, Executor executor) {
+        this.ledger = ledger;
+        this.occupancyService = occupancyService;
+        this.executor = executor;
+        this.maxRetries = config.getInt("seat_cas_max_retries", 10);
+        this.backoffBaseMicros = Math.max(1, config.getLong("seat_cas_backoff_base_micros", 100));
+        this.backoffMaxMicros = Math.max(backoffBaseMicros, config.getLong("seat_cas_backoff_max_micros", 10_000));
+        this.spillOver = config.getBoolean("seat_cas_spill_over", true);
+    }
+
+    /**
+     * Claims {@code seats} seats in {@code car}, or with spill-over in another car of the train. Completes with
+     * the car the seats were claimed in, or 0 when the car is full.
+     */
+    CompletableFuture<Integer> claim(Train train, int car, int seats, AllocationStrategy strategy) {
+        return claim(train, car, seats, strategy, new HashSet<>(), 0);
+    }
+
+    /**
+     * Claims {@code seats} seats in {@code car} only, for orders that are part of a plan: a conflict is retried
+     * on the same car and never spills over.
+     */
+    CompletableFuture<Boolean> claimInCar(Train train, int car, int seats) {
+        Set<Integer> others = new HashSet<>();
+        for (int other = 1; other <= train.getCars(); other++) {
+            if (other != car) {
+                others.add(other);
+            }
+        }
+        return claim(train, car, seats, AllocationStrategy.BEST_FIT, others, 0).thenApply(claimed -> claimed == car);
+    }
+
+    /**
+     * Returns seats claimed for an order that was then rejected to the ledger.
+     */
+    CompletableFuture<Void> release(TrainKey key, int car, int seats) {
+        return release(key, car, seats, 0);
+    }
+
+    long getClaims() {
+        return claims.sum();
+    }
+
+    long getConflicts() {
+        return conflicts.sum();
+    }
+
+    long getSpills() {
+        return spills.sum();
+    }
+
+    /**
+     * A car without a ledger entry starts from its ordered seats, like in {@link SeatEscrow}.
+     */
+    private CompletableFuture<Integer> claim(Train train, int car, int seats, AllocationStrategy strategy, Set<Integer> excluded, int attempt) {
+        TrainKey key = train.getKey();
+        return ledger.findGrantedAsync(key, car).thenCompose(granted -> {
+            CompletableFuture<Integer> current = granted != null ? CompletableFuture.completedFuture(granted)
+                    : occupancyService.getOrderedSeatsAsync(key.getTrainId(), key.getTripDate(), car);
+            return current.thenCompose(taken -> {
+                if (train.getSeatsPerCar() - taken < seats) {
+                    // A car we spilled into filled up meanwhile: the order may still fit another one.
+                    if (attempt == 0 || !spillOver || attempt >= maxRetries) {
+                        return CompletableFuture.completedFuture(0);
+                    }
+                    excluded.add(car);
+                    return nextCar(train, car, seats, strategy, excluded).thenCompose(next -> next == car
+                            ? CompletableFuture.completedFuture(0) : spill(train, car, next, seats, strategy, excluded, attempt));
+                }
+                return ledger.compareAndSetGrantedAsync(key, car, granted, taken + seats).thenCompose(applied -> {
+                    if (applied) {
+                        claims.increment();
+                        return CompletableFuture.completedFuture(car);
+                    }
+                    conflicts.increment();
+                    if (attempt >= maxRetries) {
+                        CompletableFuture<Integer> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(new IllegalStateException("Car " + car + " of train " + key
+                                + " still contended after " + maxRetries + " retries"));
+                        return failed;
+                    }
+                    excluded.add(car);
+                    return backoff(attempt)
+                            .thenCompose(ignored -> nextCar(train, car, seats, strategy, excluded))
+                            .thenCompose(next -> spill(train, car, next, seats, strategy, excluded, attempt));
+                });
+            });
+        });
+    }
+
+    private CompletableFuture<Void> release(TrainKey key, int car, int seats, int attempt) {
+        return ledger.findGrantedAsync(key, car).thenCompose(granted -> {
+            if (granted == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return ledger.compareAndSetGrantedAsync(key, car, granted, Math.max(0, granted - seats)).thenCompose(applied -> {
+                if (applied) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (attempt >= maxRetries) {
+                    logger.warn(seats + " claimed seats of car " + car + " of train " + key + " could not be released");
+                    return CompletableFuture.completedFuture(null);
+                }
+                return backoff(attempt).thenCompose(ignored -> release(key, car, seats, attempt + 1));
+            });
+        });
+    }
+
+    private CompletableFuture<Integer> spill(Train train, int car, int next, int seats, AllocationStrategy strategy, Set<Integer> excluded, int attempt) {
+        if (next != car) {
+            spills.increment();
+            logger.debug("Order for car " + car + " of train " + train.getKey() + " spilled over to car " + next);
+        }
+        return claim(train, next, seats, strategy, excluded, attempt + 1);
+    }
+
+    /**
+     * Full jitter: a uniformly random wait below the doubled cap spreads the retries of the clients that lost
+     * the same race instead of sending them back together.
+     */
+    private CompletableFuture<Void> backoff(int attempt) {
+        long cap = Math.min(backoffMaxMicros, backoffBaseMicros << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MICROSECONDS, executor));
+    }
+
+    /**
+     * The car that fits the whole order best among the ones not excluded yet, or {@code car} again when there is
+     * none or spill-over is off.
+     */
+    private CompletableFuture<Integer> nextCar(Train train, int car, int seats, AllocationStrategy strategy, Set<Integer> excluded) {
+        if (!spillOver) {
+            return CompletableFuture.completedFuture(car);
+        }
+        return occupancyService.getOrderedSeatsPerCarAsync(train.getTrainId(), train.getTripDate(), train.getCars()).thenApply(taken -> {
+            int[] candidates = taken.clone();
+            for (int excludedCar : excluded) {
+                candidates[excludedCar] = train.getSeatsPerCar();
+            }
+            AllocationPlan plan = SeatAllocationPlanner.plan(train, candidates, seats, strategy);
+            if (plan == null || plan.getSeatsByCar().size() != 1) {
+                return car;
+            }
+            return plan.getSeatsByCar().keySet().iterator().next();
+        });
+    }
+}
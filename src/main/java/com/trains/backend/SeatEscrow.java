@@ -0,0 +1,185 @@
+package com.trains.backend;
+
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escrow booking: this instance books from seats it has leased from the {@link SeatLedgerRepository} instead
+ * of reading the occupancy before every order. A lease is taken in blocks of {@code seat_escrow_block_seats}
+ * per car with a compare-and-set on the ledger, extended the same way when it runs short, and handed back once
+ * the train has not been booked for {@code seat_escrow_idle_return_millis} or the session closes. The ledger
+ * never grants more than a car holds, so instances cannot oversell between them however they book.
+ *
+ * <p>Seats of a lease whose owner dies, or that were taken for an order whose write failed, stay granted
+ * until the ledger is reset; they are never sold twice.
+ *
+ * <p>Only the {@link BookingCoordinator} lane of a train uses that train's lease, so leases are not locked.
+ */
+final class SeatEscrow {
+    private static final Logger logger = LoggerFactory.getLogger(SeatEscrow.class);
+
+    private final SeatLedgerRepository ledger;
+    private final OccupancyService occupancyService;
+    private final int blockSeats;
+    private final int maxRetries;
+    private final long idleReturnMillis;
+    private final Map<TrainKey, Lease> leases = new ConcurrentHashMap<>();
+
+    SeatEscrow(SeatLedgerRepository ledger, OccupancyService occupancyService, BackendConfig config) {
+        this.ledger = ledger;
+        this.occupancyService = occupancyService;
+        this.blockSeats = config.getInt("seat_escrow_block_seats", 20);
+        this.maxRetries = config.getInt("seat_escrow_max_retries", 10);
+        this.idleReturnMillis = config.getLong("seat_escrow_idle_return_millis", 30_000);
+    }
+
+    long getIdleReturnMillis() {
+        return idleReturnMillis;
+    }
+
+    /**
+     * Leases more seats for every car whose lease holds fewer than {@code seatsByCar} asks for, at least a
+     * block at a time. A car that is nearly sold out gets what is left, so the lease may still fall short.
+     */
+    CompletableFuture<Void> cover(Train train, Map<Integer, Integer> seatsByCar) {
+        Lease lease = leases.computeIfAbsent(train.getKey(), key -> new Lease(train.getCars()));
+        lease.lastUsed = System.currentTimeMillis();
+        List<CompletableFuture<Void>> extensions = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : seatsByCar.entrySet()) {
+            int car = entry.getKey();
+            int missing = entry.getValue() - lease.remaining[car];
+            if (missing > 0) {
+                extensions.add(acquire(train, car, Math.max(missing, blockSeats), 0)
+                        .thenAccept(granted -> lease.remaining[car] += granted));
+            }
+        }
+        return CompletableFuture.allOf(extensions.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Takes {@code seats} from the lease of the car; {@code false} when the lease does not hold that many.
+     */
+    boolean take(TrainKey key, int car, int seats) {
+        Lease lease = leases.get(key);
+        if (lease == null || lease.remaining[car] < seats) {
+            return false;
+        }
+        lease.remaining[car] -= seats;
+        return true;
+    }
+
+    /**
+     * Returns seats taken for an order that was then rejected to the lease of the car.
+     */
+    void putBack(TrainKey key, int car, int seats) {
+        Lease lease = leases.get(key);
+        if (lease != null) {
+            lease.remaining[car] += seats;
+        }
+    }
+
+    Set<TrainKey> leasedTrains() {
+        return leases.keySet();
+    }
+
+    boolean isIdle(TrainKey key, long now) {
+        Lease lease = leases.get(key);
+        return lease != null && now - lease.lastUsed >= idleReturnMillis;
+    }
+
+    /**
+     * Hands the unused seats of the train's lease back to the ledger and forgets the lease.
+     */
+    CompletableFuture<Void> release(TrainKey key) {
+        Lease lease = leases.remove(key);
+        if (lease == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> returns = new ArrayList<>();
+        for (int car = 1; car < lease.remaining.length; car++) {
+            if (lease.remaining[car] > 0) {
+                returns.add(giveBack(key, car, lease.remaining[car], 0));
+            }
+        }
+        return CompletableFuture.allOf(returns.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Forgets the train's lease without returning it, after the ledger was cleared.
+     */
+    void discard(TrainKey key) {
+        leases.remove(key);
+    }
+
+    /**
+     * A car without a ledger entry starts from its ordered seats, so orders placed before escrow booking was
+     * enabled count as granted.
+     */
+    private CompletableFuture<Integer> acquire(Train train, int car, int wanted, int attempt) {
+        TrainKey key = train.getKey();
+        return ledger.findGrantedAsync(key, car).thenCompose(granted -> {
+            CompletableFuture<Integer> current = granted != null ? CompletableFuture.completedFuture(granted)
+                    : occupancyService.getOrderedSeatsAsync(key.getTrainId(), key.getTripDate(), car);
+            return current.thenCompose(taken -> {
+                int grant = Math.min(wanted, train.getSeatsPerCar() - taken);
+                if (grant <= 0) {
+                    return CompletableFuture.completedFuture(0);
+                }
+                return ledger.compareAndSetGrantedAsync(key, car, granted, taken + grant).thenCompose(applied -> {
+                    if (applied) {
+                        return CompletableFuture.completedFuture(grant);
+                    }
+                    if (attempt >= maxRetries) {
+                        CompletableFuture<Integer> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(new IllegalStateException("Seat ledger of car " + car + " of train " + key
+                                + " still contended after " + maxRetries + " retries"));
+                        return failed;
+                    }
+                    return acquire(train, car, wanted, attempt + 1);
+                });
+            });
+        });
+    }
+
+    private CompletableFuture<Void> giveBack(TrainKey key, int car, int seats, int attempt) {
+        return ledger.findGrantedAsync(key, car).thenCompose(granted -> {
+            if (granted == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return ledger.compareAndSetGrantedAsync(key, car, granted, Math.max(0, granted - seats)).thenCompose(applied -> {
+                if (applied) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (attempt >= maxRetries) {
+                    logger.warn(seats + " leased seats of car " + car + " of train " + key + " could not be returned");
+                    return CompletableFuture.completedFuture(null);
+                }
+                return giveBack(key, car, seats, attempt + 1);
+            });
+        });
+    }
+
+    /**
+     * Unused leased seats indexed by car number.
+     */
+    private static final class Lease {
+        private final int[] remaining;
+        /**
+         * Written by the train's lane, read by the lease returner.
+         */
+        private volatile long lastUsed;
+
+        Lease(int cars) {
+            this.remaining = new int[cars + 1];
+        }
+    }
+}
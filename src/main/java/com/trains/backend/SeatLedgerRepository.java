@@ -0,0 +1,27 @@
+package com.trains.backend;
+
+import com.trains.model.TrainKey;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The central seat ledger for escrow booking (the seat_ledger table): per car, how many seats have been
+ * granted to the leases of all instances. Changed only by compare-and-set, so concurrent instances can never
+ * grant more than the car holds.
+ */
+public interface SeatLedgerRepository {
+
+    /**
+     * Completes with {@code null} when the car has no ledger entry yet. Reads the latest applied
+     * compare-and-set.
+     */
+    CompletableFuture<Integer> findGrantedAsync(TrainKey key, int car);
+
+    /**
+     * Sets the granted seats to {@code granted} if they still are {@code expected}, where {@code null} means
+     * the entry does not exist yet. Completes with whether the update was applied.
+     */
+    CompletableFuture<Boolean> compareAndSetGrantedAsync(TrainKey key, int car, Integer expected, int granted);
+
+    void deleteAll();
+}
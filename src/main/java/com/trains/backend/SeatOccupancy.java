@@ -0,0 +1,32 @@
+package com.trains.backend;
+
+/**
+ * Seats counted against one car, or against the whole train when read for car {@link OccupancyService#TRAIN_TOTAL}.
+ */
+public class SeatOccupancy {
+    public static final SeatOccupancy EMPTY = new SeatOccupancy(0, 0);
+
+    private final int ordered;
+    private final int held;
+
+    public SeatOccupancy(int ordered, int held) {
+        this.ordered = ordered;
+        this.held = held;
+    }
+
+    public int getOrdered() {
+        return ordered;
+    }
+
+    public int getHeld() {
+        return held;
+    }
+
+    public int getTaken() {
+        return ordered + held;
+    }
+
+    public SeatOccupancy plus(SeatOccupancy other) {
+        return new SeatOccupancy(ordered + other.ordered, held + other.held);
+    }
+}
@@ -0,0 +1,92 @@
+package com.trains.backend;
+
+import com.trains.backend.metrics.Coalescer;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical reads: callers asking for a key while a read of it is in flight get that read's result
+ * instead of sending their own. With a TTL above zero a completed result keeps answering for that long, so
+ * callers arriving just after it completed share it as well. Failed reads are never shared past completion.
+ *
+ * <p>A shared result can be older than a write the caller saw complete elsewhere. Writes through this
+ * instance call {@link #invalidate} once they complete, so a caller never reads past its own write.
+ */
+final class SingleFlight<K, V> {
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final Executor expiry;
+    private final Coalescer stats;
+
+    SingleFlight(long ttlMillis, Coalescer stats) {
+        this.ttlMillis = ttlMillis;
+        this.expiry = ttlMillis > 0 ? CompletableFuture.delayedExecutor(ttlMillis, TimeUnit.MILLISECONDS) : null;
+        this.stats = stats;
+    }
+
+    /**
+     * The load is started outside of the map update, so a load that completes at once can remove its entry.
+     */
+    CompletableFuture<V> get(K key, Supplier<CompletableFuture<V>> load) {
+        stats.recordRequest();
+        Flight<V> created = new Flight<>();
+        Flight<V> flight = flights.compute(key, (k, current) -> current != null && !current.isExpired(ttlMillis) ? current : created);
+        if (flight == created) {
+            stats.recordLoad();
+            start(key, flight, load);
+        }
+        return flight.result.copy();
+    }
+
+    private void start(K key, Flight<V> flight, Supplier<CompletableFuture<V>> load) {
+        CompletableFuture<V> loaded;
+        try {
+            loaded = load.get();
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((value, error) -> {
+            if (error != null || expiry == null) {
+                flights.remove(key, flight);
+            } else {
+                flight.completedAt = System.nanoTime();
+                CompletableFuture.runAsync(() -> flights.remove(key, flight), expiry);
+            }
+            if (error != null) {
+                flight.result.completeExceptionally(error);
+            } else {
+                flight.result.complete(value);
+            }
+        });
+    }
+
+    /**
+     * Makes the next request for every matching key send a new read.
+     */
+    void invalidate(Predicate<K> matching) {
+        flights.keySet().removeIf(matching);
+    }
+
+    void invalidateAll() {
+        flights.clear();
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        /**
+         * {@link System#nanoTime()} at completion, 0 while in flight.
+         */
+        private volatile long completedAt;
+
+        boolean isExpired(long ttlMillis) {
+            long completed = completedAt;
+            return completed != 0 && System.nanoTime() - completed >= TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.trains.backend;
+
+/**
+ * One storage engine: the repositories behind the services. Selected with the {@code storage} setting,
+ * {@code cassandra} (default) or {@code memory}.
+ */
+public interface Storage {
+
+    TrainRepository trains();
+
+    OrderRepository orders();
+
+    UserOrderRepository userOrders();
+
+    ReservationRepository reservations();
+
+    UserRepository users();
+
+    OccupancyRepository occupancy();
+
+    SeatLedgerRepository seatLedger();
+
+    void close();
+}
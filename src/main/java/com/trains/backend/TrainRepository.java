@@ -0,0 +1,49 @@
+package com.trains.backend;
+
+import com.trains.model.Page;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Storage of train definitions (the trains table).
+ */
+public interface TrainRepository {
+
+    List<Train> findAll();
+
+    /**
+     * Hands every train to {@code consumer} as it is read, without collecting the table, and completes with the
+     * number of rows. The consumer may be called concurrently from several threads and must not block.
+     */
+    CompletableFuture<Long> scanAsync(Consumer<? super Train> consumer);
+
+    /**
+     * Completes with {@code null} when the train does not exist.
+     */
+    CompletableFuture<Train> findAsync(TrainKey key);
+
+    /**
+     * The first {@code limit} trains in storage order, for the available trains listing.
+     */
+    CompletableFuture<List<Train>> findFirstAsync(int limit);
+
+    /**
+     * One page of the trains departing in {@code [from, to)} within timetable day {@code day}, in departure
+     * order, at most {@code limit} of them. {@code pagingState} continues an earlier page of the same query; the
+     * returned page carries the state for the next one, or {@code null} when the day is exhausted.
+     */
+    CompletableFuture<Page<Train>> findDepartingAsync(int day, long from, long to, int limit, String pagingState);
+
+    List<TrainKey> findAllKeys();
+
+    /**
+     * Writes the train and its timetable entry.
+     */
+    CompletableFuture<Void> saveAsync(Train train);
+
+    void deleteAll();
+}
@@ -1,135 +1,162 @@
 package com.trains.backend;
 
-import com.datastax.driver.core.BoundStatement;
-import com.datastax.driver.core.PreparedStatement;
-import com.datastax.driver.core.ResultSet;
-import com.datastax.driver.core.Row;
-import com.datastax.driver.core.Session;
-import com.datastax.driver.core.ConsistencyLevel;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.trains.backend.metrics.BackendMetrics;
+import com.trains.backend.metrics.OperationTimer;
+import com.trains.model.Page;
+import com.trains.model.Train;
+import com.trains.model.TrainAvailability;
+import com.trains.model.TrainKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class TrainService {
     private static final Logger logger = LoggerFactory.getLogger(TrainService.class);
 
-    private Session session;
-    private static PreparedStatement SELECT_ALL_FROM_TRAINS;
-    private static PreparedStatement INSERT_INTO_TRAINS;
-    private static PreparedStatement DELETE_ALL_FROM_TRAINS;
-    private static PreparedStatement SELECT_AVAILABLE_TRAINS;
-    private static PreparedStatement SELECT_TRAIN;
-    private static PreparedStatement SELECT_SUM_SEATS_AMOUNT;
-
-    public TrainService(Session session) {
-        this.session = session;
-        prepareStatements();
+    private TrainRepository trains;
+
+    private OccupancyService occupancyService;
+
+    /**
+     * Train definitions are effectively immutable, so bookings read them from here. Concurrent misses for the
+     * same key share one query; trains that do not exist are not cached.
+     */
+    private AsyncCache<TrainKey, Train> trainCache;
+
+    /**
+     * The CLI lists trains on every order, so the listing is kept for a short while and shared by concurrent
+     * callers. Train changes made through this service drop it immediately; new orders show up after the TTL.
+     */
+    private AsyncCache<Integer, List<TrainAvailability>> availabilityCache;
+    private int availabilityMaxInFlight;
+    private OperationTimer availableTrainsTimer;
+    private int timetableMaxSearchDays;
+    private OperationTimer searchTimetableTimer;
+
+    public TrainService(TrainRepository trains, OccupancyService occupancyService, BackendConfig config, BackendMetrics metrics, Executor executor) {
+        this.trains = trains;
+        this.occupancyService = occupancyService;
+        trainCache = Caffeine.newBuilder()
+                .maximumSize(config.getLong("train_cache_max_size", 10_000))
+                .expireAfterWrite(config.getLong("train_cache_ttl_seconds", 300), TimeUnit.SECONDS)
+                .recordStats()
+                .executor(executor)
+                .buildAsync();
+        availabilityCache = Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(config.getLong("availability_cache_ttl_millis", 2_000), TimeUnit.MILLISECONDS)
+                .executor(executor)
+                .buildAsync();
+        availabilityMaxInFlight = config.getInt("availability_max_in_flight", 32);
+        availableTrainsTimer = metrics.operation("getAvailableTrains");
+        timetableMaxSearchDays = config.getInt("timetable_max_search_days", 31);
+        searchTimetableTimer = metrics.operation("searchTimetable");
     }
 
-    private void prepareStatements() {
-        SELECT_ALL_FROM_TRAINS = session.prepare("SELECT * FROM trains;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
-
-
-        INSERT_INTO_TRAINS = session.prepare("INSERT INTO trains (train_id, trip_date, cars, seats_per_car) VALUES (?, ?, ?, ?);").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public List<Train> selectAllTrains() {
+        return trains.findAll();
+    }
 
+    public CompletableFuture<Long> scanAllTrainsAsync(Consumer<? super Train> consumer) {
+        return trains.scanAsync(consumer);
+    }
 
-        DELETE_ALL_FROM_TRAINS = session.prepare("TRUNCATE trains;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public Train upsertTrain(int trainId, long tripDate, int cars, int seatsPerCar) {
+        Train train = new Train(trainId, tripDate, cars, seatsPerCar);
+        AsyncSupport.join(upsertTrainAsync(train));
+        logger.info("Train " + trainId + " upserted");
+        return train;
+    }
 
-        SELECT_AVAILABLE_TRAINS = session.prepare("SELECT train_id, trip_date, cars, seats_per_car FROM trains LIMIT ?;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    public CompletableFuture<Void> upsertTrainAsync(Train train) {
+        return trains.saveAsync(train).thenRun(() -> {
+            trainCache.put(train.getKey(), CompletableFuture.completedFuture(train));
+            availabilityCache.synchronous().invalidateAll();
+        });
+    }
 
-        SELECT_TRAIN = session.prepare("SELECT * FROM trains WHERE train_id = ? AND trip_date = ?;").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    /**
+     * Returns {@code null} when the train does not exist.
+     */
+    public Train selectTrain(int trainId, long tripDate) {
+        return AsyncSupport.join(getTrainAsync(trainId, tripDate));
+    }
 
-        SELECT_SUM_SEATS_AMOUNT = session.prepare("SELECT SUM(seats_amount) FROM orders WHERE train_id = ? AND trip_date = ?").setConsistencyLevel(ConsistencyLevel.valueOf(session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel().name()));
+    /**
+     * Completes with {@code null} when the train does not exist.
+     */
+    public CompletableFuture<Train> getTrainAsync(int trainId, long tripDate) {
+        return trainCache.get(new TrainKey(trainId, tripDate), (key, executor) -> trains.findAsync(key));
+    }
 
+    public boolean isValidCar(int trainId, long tripDate, int carNumber) {
+        Train train = selectTrain(trainId, tripDate);
+        return train != null && train.isValidCar(carNumber);
     }
 
-    public String selectAllTrains() {
-        StringBuilder builder = new StringBuilder();
-        BoundStatement bs = new BoundStatement(SELECT_ALL_FROM_TRAINS);
-        ResultSet rs = session.execute(bs);
+    public CacheStats getTrainCacheStats() {
+        return trainCache.synchronous().stats();
+    }
 
-        for (Row row : rs) {
-            int trainId = row.getInt("train_id");
-            Date tripDate = row.getTimestamp("trip_date");
-            int cars = row.getInt("cars");
-            int seatsPerCar = row.getInt("seats_per_car");
+    public List<TrainAvailability> getAvailableTrains(int limit) {
+        return AsyncSupport.join(getAvailableTrainsAsync(limit));
+    }
 
-            builder.append(String.format("Train ID: %d, Trip Date: %s, Cars: %d, Seats: %d \n", trainId, tripDate, cars, seatsPerCar));
-        }
+    public CompletableFuture<List<TrainAvailability>> getAvailableTrainsAsync(int limit) {
+        return availableTrainsTimer.timeAsync(() -> availabilityCache.get(limit, (key, executor) -> loadAvailableTrainsAsync(key)));
+    }
 
-        return builder.toString();
+    /**
+     * Occupancy reads for the listed trains run concurrently, at most {@code availability_max_in_flight} at a
+     * time, and the result keeps the order of the trains query.
+     */
+    private CompletableFuture<List<TrainAvailability>> loadAvailableTrainsAsync(int limit) {
+        return trains.findFirstAsync(limit)
+                .thenCompose(listed -> AsyncFanOut.mapOrdered(listed, availabilityMaxInFlight, this::withAvailability));
     }
 
-    public String upsertTrain(int trainId, Timestamp tripDate, int cars, int seatsPerCar) {
-        BoundStatement bs = new BoundStatement(INSERT_INTO_TRAINS);
-        bs.bind(trainId, tripDate, cars, seatsPerCar);
-        session.execute(bs);
-        logger.info("Train " + trainId + " upserted");
-        return String.format("TrainID: %d, Departure: %s, Cars: %d, SeatsPerCar: %d", trainId, tripDate, cars, seatsPerCar);
+    public Page<TrainAvailability> searchTimetable(long from, long to, int pageSize, String pageToken) {
+        return AsyncSupport.join(searchTimetableAsync(from, to, pageSize, pageToken));
     }
 
-    public String selectTrain(int trainId, Timestamp tripDate) {
-        BoundStatement bs = new BoundStatement(SELECT_TRAIN);
-        bs.bind(trainId, tripDate);
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        if (row == null) {
-            return null;
+    /**
+     * Trains departing in {@code [from, to)} in departure order, {@code pageSize} at a time, with their free
+     * seats. Pass {@code null} as the token for the first page and the returned {@link Page#getNextToken()} for
+     * the following ones, with the same range.
+     */
+    public CompletableFuture<Page<TrainAvailability>> searchTimetableAsync(long from, long to, int pageSize, String pageToken) {
+        if (to <= from) {
+            return CompletableFuture.completedFuture(new Page<>(new ArrayList<>(), null));
         }
-        int cars = row.getInt("cars");
-        int seatsPerCar = row.getInt("seats_per_car");
-        
-        return String.format("Train ID: %d, Departure: %s, Cars: %d, Seats Per Car: %d", trainId, tripDate, cars, seatsPerCar);
-    }
-
-    public boolean isValidCar(int trainId, Timestamp tripDate, int carNumber) {
-        BoundStatement bs = new BoundStatement(SELECT_TRAIN);
-        bs.bind(trainId, tripDate);
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        if (row == null) {
-            return false;
+        int firstDay = TrainKey.timetableDay(from);
+        int lastDay = TrainKey.timetableDay(to - 1);
+        if (lastDay - firstDay >= timetableMaxSearchDays) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Search range exceeds " + timetableMaxSearchDays + " days"));
         }
-        int cars = row.getInt("cars");
-        return carNumber > 0 && carNumber <= cars;
-    }
-
-    public List<String> getAvailableTrains(int limit) {
-        List<String> trains = new ArrayList<>();
-        BoundStatement bs = new BoundStatement(SELECT_AVAILABLE_TRAINS);
-        bs.bind(limit);
-        ResultSet rs = session.execute(bs);
-
-        for (Row row : rs) {
-            int trainId = row.getInt("train_id");
-            Date tripDate = row.getTimestamp("trip_date");
-            int cars = row.getInt("cars");
-            int seatsPerCar = row.getInt("seats_per_car");
-            int totalSeats = cars * seatsPerCar;
-            int reservedSeats = getTakenSeats(trainId, new Timestamp(tripDate.getTime()));
-            int availableSeats = totalSeats - reservedSeats;
-
-            trains.add(String.format("Train ID: %d, Departure: %s, Cars: %d, Seats Per Car: %d, Available Seats: %d", trainId, tripDate, cars, seatsPerCar, availableSeats));
-        }
-
-        return trains;
+        return searchTimetableTimer.timeAsync(() ->
+                BucketPager.page(firstDay, lastDay, pageSize, pageToken, (day, limit, state) -> trains.findDepartingAsync(day, from, to, limit, state))
+                        .thenCompose(page -> AsyncFanOut.mapOrdered(page.getItems(), availabilityMaxInFlight, this::withAvailability)
+                                .thenApply(listed -> new Page<>(listed, page.getNextToken()))));
     }
 
-    private int getTakenSeats(int trainId, Timestamp tripDate) {
-        BoundStatement bs = new BoundStatement(SELECT_SUM_SEATS_AMOUNT);
-        bs.bind(trainId, tripDate);
-        ResultSet rs = session.execute(bs);
-        Row row = rs.one();
-        return row != null ? row.getInt(0) : 0;
+    private CompletableFuture<TrainAvailability> withAvailability(Train train) {
+        return occupancyService.getOrderedSeatsAsync(train.getTrainId(), train.getTripDate(), OccupancyService.TRAIN_TOTAL)
+                .thenApply(ordered -> new TrainAvailability(train, train.getTotalSeats() - ordered));
     }
 
     public void deleteAllTrains() {
-        BoundStatement bs = new BoundStatement(DELETE_ALL_FROM_TRAINS);
-        session.execute(bs);
+        trains.deleteAll();
+        trainCache.synchronous().invalidateAll();
+        availabilityCache.synchronous().invalidateAll();
         logger.info("All trains deleted");
     }
 }
\ No newline at end of file
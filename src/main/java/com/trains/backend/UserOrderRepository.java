@@ -0,0 +1,41 @@
+package com.trains.backend;
+
+import com.trains.model.Order;
+import com.trains.model.Page;
+import com.trains.model.TrainKey;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Storage of the per-user copies of orders: orders_per_user for one train, orders_by_user for a user's history.
+ */
+public interface UserOrderRepository {
+
+    List<Order> findAll();
+
+    /**
+     * Hands every orders_per_user row to {@code consumer} as it is read, without collecting the table, and completes with the
+     * number of rows. The consumer may be called concurrently from several threads and must not block.
+     */
+    CompletableFuture<Long> scanAsync(Consumer<? super Order> consumer);
+
+    List<Order> findByUser(TrainKey key, UUID userId);
+
+    /**
+     * One page of the orders of {@code userId} with a trip date in {@code [from, to)} within history month
+     * {@code month}, in trip date order, at most {@code limit} of them. {@code pagingState} continues an earlier
+     * page of the same query; the returned page carries the state for the next one, or {@code null} when the
+     * month is exhausted.
+     */
+    CompletableFuture<Page<Order>> findHistoryAsync(UUID userId, int month, long from, long to, int limit, String pagingState);
+
+    /**
+     * Writes the order to both per-user tables.
+     */
+    CompletableFuture<Void> saveAsync(Order order);
+
+    void deleteAll();
+}
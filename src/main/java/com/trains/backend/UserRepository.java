@@ -0,0 +1,31 @@
+package com.trains.backend;
+
+import com.trains.Client;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Storage of users (the users table).
+ */
+public interface UserRepository {
+
+    List<Client> findAll();
+
+    /**
+     * Hands every user to {@code consumer} as it is read, without collecting the table, and completes with the
+     * number of rows. The consumer may be called concurrently from several threads and must not block.
+     */
+    CompletableFuture<Long> scanAsync(Consumer<? super Client> consumer);
+
+    /**
+     * Returns {@code null} when the user does not exist.
+     */
+    Client find(UUID userId);
+
+    CompletableFuture<Void> saveAsync(Client client);
+
+    void deleteAll();
+}
@@ -0,0 +1,108 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.trains.backend.AsyncSupport;
+import com.trains.backend.ConsistencyProfile;
+import com.trains.backend.OccupancyRepository;
+import com.trains.model.TrainKey;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+/**
+ * Ordered seats live in seat_occupancy, held seats in held_seats clustered by expiry bucket. Reads of held
+ * seats slice from the first live bucket, so expired buckets are skipped without being read.
+ */
+class CassandraOccupancyRepository implements OccupancyRepository {
+    private final CqlSession cql;
+
+    CassandraOccupancyRepository(CqlSession cql) {
+        this.cql = cql;
+    }
+
+    /**
+     * All rows live in one partition, so the counter batch is applied atomically by a single replica set.
+     */
+    @Override
+    public CompletableFuture<Void> addOrderedAsync(TrainKey key, Map<Integer, Integer> deltas) {
+        Date tripDate = key.getTripDateAsDate();
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.COUNTER);
+        for (Map.Entry<Integer, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0) {
+                batch.add(cql.bind(UPDATE_ORDERED_SEATS, (long) entry.getValue(), key.getTrainId(), tripDate, entry.getKey()));
+            }
+        }
+        return execute("UPDATE_OCCUPANCY_BATCH", batch);
+    }
+
+    @Override
+    public CompletableFuture<Integer> findOrderedAsync(TrainKey key, int car, ConsistencyProfile profile) {
+        return cql.executeAsync(SELECT_ORDERED_SEATS, profile, key.getTrainId(), key.getTripDateAsDate(), car)
+                .thenApply(rs -> {
+                    Row row = rs.one();
+                    return row != null ? (int) row.getLong("ordered") : 0;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, Integer>> findAllOrderedAsync(TrainKey key) {
+        return cql.executeAsync(SELECT_ORDERED_SEATS_BY_TRAIN, key.getTrainId(), key.getTripDateAsDate())
+                .thenCompose(rs -> sumByCar(rs, "ordered", new HashMap<>()));
+    }
+
+    @Override
+    public CompletableFuture<Void> addHeldAsync(TrainKey key, long bucket, Map<Integer, Integer> deltas) {
+        Date tripDate = key.getTripDateAsDate();
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.COUNTER);
+        for (Map.Entry<Integer, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0) {
+                batch.add(cql.bind(UPDATE_HELD_SEATS, (long) entry.getValue(), key.getTrainId(), tripDate, bucket, entry.getKey()));
+            }
+        }
+        return execute("UPDATE_HELD_SEATS_BATCH", batch);
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, Integer>> findHeldAsync(TrainKey key, long fromBucket, ConsistencyProfile profile) {
+        return cql.executeAsync(SELECT_LIVE_HELD_SEATS, profile, key.getTrainId(), key.getTripDateAsDate(), fromBucket)
+                .thenCompose(rs -> sumByCar(rs, "held", new HashMap<>()));
+    }
+
+    private CompletableFuture<Void> execute(String name, BatchStatement batch) {
+        if (batch.size() == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return cql.executeAsync(name, batch).thenApply(rs -> null);
+    }
+
+    /**
+     * Sums the rows already fetched, then asks for the next page without blocking. Held seats span one row per
+     * car and live bucket, which can exceed a page with short buckets.
+     */
+    private static CompletableFuture<Map<Integer, Integer>> sumByCar(ResultSet rs, String column, Map<Integer, Integer> sums) {
+        for (int i = rs.getAvailableWithoutFetching(); i > 0; i--) {
+            Row row = rs.one();
+            sums.merge(row.getInt("car"), (int) row.getLong(column), Integer::sum);
+        }
+        if (rs.isFullyFetched()) {
+            return CompletableFuture.completedFuture(sums);
+        }
+        return AsyncSupport.toCompletable(rs.fetchMoreResults()).thenCompose(next -> sumByCar(next, column, sums));
+    }
+
+    @Override
+    public void deleteAllOrdered() {
+        cql.execute(DELETE_ALL_FROM_OCCUPANCY);
+    }
+
+    @Override
+    public void deleteAllHeld() {
+        cql.execute(DELETE_ALL_FROM_HELD_SEATS);
+    }
+}
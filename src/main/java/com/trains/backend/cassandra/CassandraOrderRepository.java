@@ -0,0 +1,100 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.trains.backend.OrderRepository;
+import com.trains.backend.OrderWriteMode;
+import com.trains.model.Order;
+import com.trains.model.TrainKey;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+class CassandraOrderRepository implements OrderRepository {
+    private final CqlSession cql;
+    private final CassandraUserOrderRepository userOrders;
+    private final TokenRangeScanner scanner;
+
+    CassandraOrderRepository(CqlSession cql, CassandraUserOrderRepository userOrders, TokenRangeScanner scanner) {
+        this.cql = cql;
+        this.userOrders = userOrders;
+        this.scanner = scanner;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return scanner.collect(SCAN_ORDERS, RowMappers::toOrder);
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Order> consumer) {
+        return scanner.scan(SCAN_ORDERS, RowMappers::toOrder, consumer);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Order order, OrderWriteMode mode) {
+        BoundStatement bs = cql.bind(INSERT_INTO_ORDERS, order.getOrderId(), order.getTrainId(), new Date(order.getTripDate()),
+                order.getUserId(), order.getCar(), order.getSeatsAmount());
+        if (mode == OrderWriteMode.SEPARATE) {
+            CompletableFuture<Void> inserted = cql.executeAsync(INSERT_INTO_ORDERS.name(), bs).thenApply(rs -> null);
+            return CompletableFuture.allOf(inserted, userOrders.saveAsync(order));
+        }
+
+        BatchStatement batch = new BatchStatement(mode == OrderWriteMode.LOGGED_BATCH ? BatchStatement.Type.LOGGED : BatchStatement.Type.UNLOGGED);
+        batch.add(bs);
+        batch.addAll(userOrders.bind(order));
+        return cql.executeAsync("INSERT_ORDER_BATCH", batch).thenApply(rs -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAllAsync(TrainKey key, List<Order> orders, OrderWriteMode mode) {
+        // A user's rows span two partitions, so only their batches need the batch log.
+        BatchStatement.Type userBatchType = mode == OrderWriteMode.LOGGED_BATCH ? BatchStatement.Type.LOGGED : BatchStatement.Type.UNLOGGED;
+        BatchStatement trainBatch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        Map<UUID, BatchStatement> userBatches = new HashMap<>();
+        for (Order order : orders) {
+            trainBatch.add(bind(order, key));
+            userBatches.computeIfAbsent(order.getUserId(), user -> new BatchStatement(userBatchType))
+                    .addAll(userOrders.bind(order));
+        }
+        List<CompletableFuture<?>> writes = new ArrayList<>();
+        writes.add(cql.executeAsync("GROUP_ORDERS_BATCH", trainBatch));
+        for (BatchStatement userBatch : userBatches.values()) {
+            writes.add(cql.executeAsync("GROUP_USERS_ORDERS_BATCH", userBatch));
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+
+    private BoundStatement bind(Order order, TrainKey key) {
+        return cql.bind(INSERT_INTO_ORDERS, order.getOrderId(), order.getTrainId(), key.getTripDateAsDate(),
+                order.getUserId(), order.getCar(), order.getSeatsAmount());
+    }
+
+    @Override
+    public Map<Integer, Integer> sumSeatsByCar(TrainKey key) {
+        return sumByCar(cql.execute(SELECT_ORDERED_SEATS_GROUP_BY_CAR, key.getTrainId(), key.getTripDateAsDate()));
+    }
+
+    static Map<Integer, Integer> sumByCar(ResultSet rows) {
+        Map<Integer, Integer> sums = new HashMap<>();
+        for (Row row : rows) {
+            sums.put(row.getInt(0), row.getInt(1));
+        }
+        return sums;
+    }
+
+    @Override
+    public void deleteAll() {
+        cql.execute(DELETE_ALL_FROM_ORDERS);
+    }
+}
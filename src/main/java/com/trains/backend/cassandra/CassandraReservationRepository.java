@@ -0,0 +1,72 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.Row;
+import com.trains.backend.HoldState;
+import com.trains.backend.ReservationRepository;
+import com.trains.model.Reservation;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+/**
+ * Each hold is its own partition, so hold churn never touches the train partitions that availability reads,
+ * and closing a hold is an overwrite with the remaining TTL rather than a delete. State changes are lightweight
+ * transactions, so a hold is confirmed or released once however many callers race for it.
+ */
+class CassandraReservationRepository implements ReservationRepository {
+    private final CqlSession cql;
+
+    CassandraReservationRepository(CqlSession cql) {
+        this.cql = cql;
+    }
+
+    @Override
+    public Reservation find(UUID resId) {
+        Row row = cql.execute(SELECT_RESERVATION_HOLD, resId).one();
+        if (row == null || !HoldState.HELD.name().equals(row.getString("state"))
+                || row.getTimestamp("expires_at").getTime() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return RowMappers.toReservation(row);
+    }
+
+    @Override
+    public void save(Reservation reservation) {
+        int ttl = remainingTtlSeconds(reservation);
+        if (ttl > 0) {
+            cql.execute(INSERT_INTO_RESERVATION_HOLDS, reservation.getResId(), reservation.getTrainId(),
+                    new Date(reservation.getTripDate()), reservation.getUserId(), reservation.getCar(), reservation.getSeatsAmount(),
+                    new Date(reservation.getExpiresAt()), HoldState.HELD.name(), ttl);
+        }
+    }
+
+    @Override
+    public void updateSeats(Reservation reservation, int seatsAmount) {
+        int ttl = remainingTtlSeconds(reservation);
+        if (ttl > 0) {
+            cql.execute(UPDATE_RESERVATION_HOLD_SEATS, ttl, seatsAmount, reservation.getResId());
+        }
+    }
+
+    @Override
+    public boolean changeState(Reservation reservation, HoldState expected, HoldState state) {
+        int ttl = remainingTtlSeconds(reservation);
+        return ttl > 0 && cql.execute(UPDATE_RESERVATION_HOLD_STATE, ttl, state.name(), reservation.getResId(), expected.name()).wasApplied();
+    }
+
+    /**
+     * The TTL that makes a write expire together with the hold, rounded up to whole seconds; 0 once it has
+     * expired.
+     */
+    private static int remainingTtlSeconds(Reservation reservation) {
+        long remaining = reservation.getExpiresAt() - System.currentTimeMillis();
+        return remaining > 0 ? (int) ((remaining + 999) / 1000) : 0;
+    }
+
+    @Override
+    public void deleteAll() {
+        cql.execute(DELETE_ALL_FROM_RESERVATION_HOLDS);
+    }
+}
@@ -0,0 +1,45 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Row;
+import com.trains.backend.SeatLedgerRepository;
+import com.trains.model.TrainKey;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+/**
+ * Ledger updates are lightweight transactions; reads use SERIAL so they see every applied update.
+ */
+class CassandraSeatLedgerRepository implements SeatLedgerRepository {
+    private final CqlSession cql;
+
+    CassandraSeatLedgerRepository(CqlSession cql) {
+        this.cql = cql;
+    }
+
+    @Override
+    public CompletableFuture<Integer> findGrantedAsync(TrainKey key, int car) {
+        return cql.executeAsync(SELECT_SEAT_LEDGER.name(), cql.bind(SELECT_SEAT_LEDGER, key.getTrainId(), key.getTripDateAsDate(), car)
+                .setConsistencyLevel(ConsistencyLevel.SERIAL)).thenApply(rs -> {
+            Row row = rs.one();
+            return row != null ? row.getInt("granted") : null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> compareAndSetGrantedAsync(TrainKey key, int car, Integer expected, int granted) {
+        if (expected == null) {
+            return cql.executeAsync(INSERT_SEAT_LEDGER, key.getTrainId(), key.getTripDateAsDate(), car, granted)
+                    .thenApply(rs -> rs.wasApplied());
+        }
+        return cql.executeAsync(UPDATE_SEAT_LEDGER, granted, key.getTrainId(), key.getTripDateAsDate(), car, expected)
+                .thenApply(rs -> rs.wasApplied());
+    }
+
+    @Override
+    public void deleteAll() {
+        cql.execute(DELETE_ALL_FROM_SEAT_LEDGER);
+    }
+}
@@ -0,0 +1,124 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.QueryOptions;
+import com.datastax.driver.core.Session;
+import com.trains.backend.BackendConfig;
+import com.trains.backend.BackendException;
+import com.trains.backend.OccupancyRepository;
+import com.trains.backend.OrderRepository;
+import com.trains.backend.ReservationRepository;
+import com.trains.backend.SeatLedgerRepository;
+import com.trains.backend.Storage;
+import com.trains.backend.TrainRepository;
+import com.trains.backend.UserOrderRepository;
+import com.trains.backend.UserRepository;
+import com.trains.backend.metrics.BackendMetrics;
+
+/**
+ * The repositories backed by the Cassandra cluster, sharing one session and one set of prepared statements.
+ */
+public class CassandraStorage implements Storage {
+    private final Session session;
+    private final StatementRegistry statements;
+    private final TrainRepository trains;
+    private final OrderRepository orders;
+    private final CassandraUserOrderRepository userOrders;
+    private final ReservationRepository reservations;
+    private final UserRepository users;
+    private final OccupancyRepository occupancy;
+    private final SeatLedgerRepository seatLedger;
+
+    /**
+     * Every statement the repositories send is timed under its name in {@code metrics}.
+     */
+    public CassandraStorage(Session session, BackendConfig config, BackendMetrics metrics) throws BackendException {
+        this.session = session;
+        statements = new StatementRegistry(session, config);
+        CqlSession cql = new CqlSession(session, statements, metrics);
+        TokenRangeScanner scanner = new TokenRangeScanner(session, cql, config);
+        trains = new CassandraTrainRepository(cql, scanner);
+        userOrders = new CassandraUserOrderRepository(cql, scanner);
+        orders = new CassandraOrderRepository(cql, userOrders, scanner);
+        reservations = new CassandraReservationRepository(cql);
+        users = new CassandraUserRepository(cql, scanner);
+        occupancy = new CassandraOccupancyRepository(cql);
+        seatLedger = new CassandraSeatLedgerRepository(cql);
+    }
+
+    public static CassandraStorage connect(String contactPoints, String keyspace, String consistency, BackendConfig config,
+                                           BackendMetrics metrics) throws BackendException {
+        Cluster.Builder clusterBuilder = Cluster.builder();
+        for (String contactPoint : contactPoints.split(",")) {
+            String[] parts = contactPoint.split(":");
+            clusterBuilder.addContactPoint(parts[0].trim());
+            if (parts.length > 1) {
+                clusterBuilder.withPort(Integer.parseInt(parts[1].trim()));
+            }
+        }
+        clusterBuilder.withQueryOptions(new QueryOptions().setConsistencyLevel(ConsistencyLevel.valueOf(consistency)))
+                .withLoadBalancingPolicy(ClusterOptions.loadBalancingPolicy(config))
+                .withPoolingOptions(ClusterOptions.poolingOptions(config))
+                .withSocketOptions(ClusterOptions.socketOptions(config))
+                .withCompression(ClusterOptions.compression(config));
+        Cluster cluster = clusterBuilder.build();
+        Session session;
+        try {
+            session = cluster.connect(keyspace);
+            System.out.println("Connected to keyspace: " + keyspace + " with consistency: " + consistency);
+        } catch (Exception e) {
+            throw new BackendException("Could not connect to the cluster. " + e.getMessage() + ".", e);
+        }
+        metrics.bindDriverMetrics(cluster.getMetrics());
+        return new CassandraStorage(session, config, metrics);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public StatementRegistry getStatements() {
+        return statements;
+    }
+
+    @Override
+    public TrainRepository trains() {
+        return trains;
+    }
+
+    @Override
+    public OrderRepository orders() {
+        return orders;
+    }
+
+    @Override
+    public UserOrderRepository userOrders() {
+        return userOrders;
+    }
+
+    @Override
+    public ReservationRepository reservations() {
+        return reservations;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public OccupancyRepository occupancy() {
+        return occupancy;
+    }
+
+    @Override
+    public SeatLedgerRepository seatLedger() {
+        return seatLedger;
+    }
+
+    @Override
+    public void close() {
+        session.getCluster().close();
+    }
+}
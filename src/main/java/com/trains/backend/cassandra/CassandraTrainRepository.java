@@ -0,0 +1,101 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.trains.backend.TrainRepository;
+import com.trains.model.Page;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+class CassandraTrainRepository implements TrainRepository {
+    private final CqlSession cql;
+    private final TokenRangeScanner scanner;
+
+    CassandraTrainRepository(CqlSession cql, TokenRangeScanner scanner) {
+        this.cql = cql;
+        this.scanner = scanner;
+    }
+
+    @Override
+    public List<Train> findAll() {
+        return scanner.collect(SCAN_TRAINS, RowMappers::toTrain);
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Train> consumer) {
+        return scanner.scan(SCAN_TRAINS, RowMappers::toTrain, consumer);
+    }
+
+    @Override
+    public CompletableFuture<Train> findAsync(TrainKey key) {
+        return cql.executeAsync(SELECT_TRAIN, key.getTrainId(), key.getTripDateAsDate()).thenApply(rs -> {
+            Row row = rs.one();
+            return row != null ? new Train(key, row.getInt("cars"), row.getInt("seats_per_car")) : null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Train>> findFirstAsync(int limit) {
+        return cql.executeAsync(SELECT_AVAILABLE_TRAINS, limit)
+                .thenApply(CassandraTrainRepository::currentPage);
+    }
+
+    /**
+     * Reads only the rows already fetched; iterating further would block the driver I/O thread. The listing
+     * limit stays well below the fetch size, and timetable pages set the fetch size to their limit.
+     */
+    private static List<Train> currentPage(ResultSet rs) {
+        List<Train> trains = new ArrayList<>();
+        for (int i = rs.getAvailableWithoutFetching(); i > 0; i--) {
+            trains.add(RowMappers.toTrain(rs.one()));
+        }
+        return trains;
+    }
+
+    @Override
+    public CompletableFuture<Page<Train>> findDepartingAsync(int day, long from, long to, int limit, String pagingState) {
+        Statement statement = cql.bind(SELECT_TIMETABLE, day, new Date(from), new Date(to)).setFetchSize(limit);
+        if (pagingState != null) {
+            statement.setPagingState(PagingState.fromString(pagingState));
+        }
+        return cql.executeAsync(SELECT_TIMETABLE.name(), statement).thenApply(rs -> {
+            PagingState next = rs.getExecutionInfo().getPagingState();
+            return new Page<>(currentPage(rs), next != null ? next.toString() : null);
+        });
+    }
+
+    @Override
+    public List<TrainKey> findAllKeys() {
+        List<TrainKey> keys = new ArrayList<>();
+        for (Row row : cql.execute(SELECT_ALL_TRAIN_KEYS)) {
+            keys.add(new TrainKey(row.getInt("train_id"), row.getTimestamp("trip_date").getTime()));
+        }
+        return keys;
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Train train) {
+        // Both inserts are idempotent, so a failed save is repaired by saving the train again.
+        Date tripDate = train.getKey().getTripDateAsDate();
+        return CompletableFuture.allOf(
+                cql.executeAsync(INSERT_INTO_TRAINS, train.getTrainId(), tripDate, train.getCars(), train.getSeatsPerCar()),
+                cql.executeAsync(INSERT_INTO_TIMETABLE, train.getKey().getTimetableDay(), tripDate, train.getTrainId(),
+                        train.getCars(), train.getSeatsPerCar()));
+    }
+
+    @Override
+    public void deleteAll() {
+        cql.execute(DELETE_ALL_FROM_TRAINS);
+        cql.execute(DELETE_ALL_FROM_TIMETABLE);
+    }
+}
@@ -0,0 +1,96 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.trains.backend.UserOrderRepository;
+import com.trains.model.Order;
+import com.trains.model.Page;
+import com.trains.model.TrainKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+class CassandraUserOrderRepository implements UserOrderRepository {
+    private final CqlSession cql;
+    private final TokenRangeScanner scanner;
+
+    CassandraUserOrderRepository(CqlSession cql, TokenRangeScanner scanner) {
+        this.cql = cql;
+        this.scanner = scanner;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return scanner.collect(SCAN_USERS_ORDERS, RowMappers::toOrder);
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Order> consumer) {
+        return scanner.scan(SCAN_USERS_ORDERS, RowMappers::toOrder, consumer);
+    }
+
+    @Override
+    public List<Order> findByUser(TrainKey key, UUID userId) {
+        List<Order> orders = new ArrayList<>();
+        for (Row row : cql.execute(SELECT_ORDERS, key.getTrainId(), key.getTripDateAsDate(), userId)) {
+            orders.add(RowMappers.toOrder(row));
+        }
+        return orders;
+    }
+
+    @Override
+    public CompletableFuture<Page<Order>> findHistoryAsync(UUID userId, int month, long from, long to, int limit, String pagingState) {
+        Statement statement = cql.bind(SELECT_ORDERS_BY_USER, userId, month, new Date(from), new Date(to)).setFetchSize(limit);
+        if (pagingState != null) {
+            statement.setPagingState(PagingState.fromString(pagingState));
+        }
+        return cql.executeAsync(SELECT_ORDERS_BY_USER.name(), statement).thenApply(rs -> {
+            // Only the rows already fetched; the fetch size is the page limit.
+            List<Order> orders = new ArrayList<>();
+            for (int i = rs.getAvailableWithoutFetching(); i > 0; i--) {
+                orders.add(RowMappers.toOrder(rs.one()));
+            }
+            PagingState next = rs.getExecutionInfo().getPagingState();
+            return new Page<>(orders, next != null ? next.toString() : null);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Order order) {
+        return CompletableFuture.allOf(
+                cql.executeAsync(INSERT_INTO_USERS_ORDERS.name(), bindPerTrain(order)),
+                cql.executeAsync(INSERT_INTO_ORDERS_BY_USER.name(), bindHistory(order)));
+    }
+
+    /**
+     * The inserts of both per-user tables, for callers that put them into their own batch.
+     */
+    List<BoundStatement> bind(Order order) {
+        return Arrays.asList(bindPerTrain(order), bindHistory(order));
+    }
+
+    private BoundStatement bindPerTrain(Order order) {
+        return cql.bind(INSERT_INTO_USERS_ORDERS, order.getOrderId(), order.getTrainId(), new Date(order.getTripDate()),
+                order.getUserId(), order.getCar(), order.getSeatsAmount());
+    }
+
+    private BoundStatement bindHistory(Order order) {
+        return cql.bind(INSERT_INTO_ORDERS_BY_USER, order.getUserId(), order.getHistoryMonth(), new Date(order.getTripDate()),
+                order.getOrderId(), order.getCar(), order.getTrainId(), order.getSeatsAmount());
+    }
+
+    @Override
+    public void deleteAll() {
+        cql.execute(DELETE_ALL_FROM_USERS_ORDERS);
+        cql.execute(DELETE_ALL_FROM_ORDERS_BY_USER);
+    }
+}
@@ -0,0 +1,52 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.Row;
+import com.trains.Client;
+import com.trains.backend.UserRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.trains.backend.cassandra.CqlStatement.*;
+
+class CassandraUserRepository implements UserRepository {
+    private final CqlSession cql;
+    private final TokenRangeScanner scanner;
+
+    CassandraUserRepository(CqlSession cql, TokenRangeScanner scanner) {
+        this.cql = cql;
+        this.scanner = scanner;
+    }
+
+    @Override
+    public List<Client> findAll() {
+        return scanner.collect(SCAN_USERS, CassandraUserRepository::toClient);
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Client> consumer) {
+        return scanner.scan(SCAN_USERS, CassandraUserRepository::toClient, consumer);
+    }
+
+    private static Client toClient(Row row) {
+        return new Client(row.getUUID("user_id"), row.getString("name"));
+    }
+
+    @Override
+    public Client find(UUID userId) {
+        Row row = cql.execute(SELECT_USER, userId).one();
+        return row != null ? new Client(userId, row.getString("name")) : null;
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Client client) {
+        return cql.executeAsync(INSERT_INTO_USERS, client.getUserId(), client.getName()).thenApply(rs -> null);
+    }
+
+    @Override
+    public void deleteAll() {
+        cql.execute(DELETE_ALL_FROM_USERS);
+    }
+}
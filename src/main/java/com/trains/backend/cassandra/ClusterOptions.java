@@ -0,0 +1,69 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.PoolingOptions;
+import com.datastax.driver.core.ProtocolOptions;
+import com.datastax.driver.core.SocketOptions;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.trains.backend.BackendConfig;
+
+/**
+ * Builds the driver options of {@link CassandraStorage} from config.properties. The defaults are the values
+ * we run the 4-node cluster with; see config.properties for the keys.
+ */
+final class ClusterOptions {
+
+    private ClusterOptions() {
+    }
+
+    /**
+     * Token-aware routing sends every partition-key query straight to a replica, saving the coordinator hop;
+     * {@link RangeRoutingPolicy} does the same for the token-range reads of full-table scans. Without
+     * {@code local_dc} the data center of the contact points is used.
+     */
+    static LoadBalancingPolicy loadBalancingPolicy(BackendConfig config) {
+        DCAwareRoundRobinPolicy.Builder dcAware = DCAwareRoundRobinPolicy.builder();
+        String localDc = config.getString("local_dc", "");
+        if (!localDc.isEmpty()) {
+            dcAware.withLocalDc(localDc);
+        }
+        LoadBalancingPolicy policy = dcAware.build();
+        if (config.getBoolean("token_aware", true)) {
+            policy = new TokenAwarePolicy(policy, TokenAwarePolicy.ReplicaOrdering.RANDOM);
+        }
+        return new RangeRoutingPolicy(policy);
+    }
+
+    static PoolingOptions poolingOptions(BackendConfig config) {
+        return new PoolingOptions()
+                .setConnectionsPerHost(HostDistance.LOCAL,
+                        config.getInt("pool_local_core_connections", 1),
+                        config.getInt("pool_local_max_connections", 2))
+                .setConnectionsPerHost(HostDistance.REMOTE,
+                        config.getInt("pool_remote_core_connections", 1),
+                        config.getInt("pool_remote_max_connections", 1))
+                .setMaxRequestsPerConnection(HostDistance.LOCAL, config.getInt("pool_local_max_requests_per_connection", 2048))
+                .setMaxRequestsPerConnection(HostDistance.REMOTE, config.getInt("pool_remote_max_requests_per_connection", 256))
+                .setMaxQueueSize(config.getInt("pool_max_queue_size", 1024))
+                .setPoolTimeoutMillis(config.getInt("pool_timeout_millis", 5000))
+                .setHeartbeatIntervalSeconds(config.getInt("pool_heartbeat_interval_seconds", 30));
+    }
+
+    /**
+     * The read timeout must stay above the server-side request timeouts, otherwise the driver gives up on
+     * requests the coordinator would still answer.
+     */
+    static SocketOptions socketOptions(BackendConfig config) {
+        return new SocketOptions()
+                .setConnectTimeoutMillis(config.getInt("socket_connect_timeout_millis", 5000))
+                .setReadTimeoutMillis(config.getInt("socket_read_timeout_millis", 12000))
+                .setTcpNoDelay(config.getBoolean("socket_tcp_no_delay", true))
+                .setKeepAlive(config.getBoolean("socket_keep_alive", true));
+    }
+
+    static ProtocolOptions.Compression compression(BackendConfig config) {
+        return ProtocolOptions.Compression.valueOf(config.getString("compression", ProtocolOptions.Compression.LZ4.name()).toUpperCase());
+    }
+}
@@ -0,0 +1,66 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.trains.backend.AsyncSupport;
+import com.trains.backend.ConsistencyProfile;
+import com.trains.backend.metrics.BackendMetrics;
+import com.trains.backend.metrics.OperationTimer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Executes statements for the repositories and times each one under its name: the {@link CqlStatement} for
+ * single statements, an explicit name for batches. Batches without a consistency level of their own run at
+ * the {@link ConsistencyProfile#BOOKING} level.
+ */
+class CqlSession {
+    private final Session session;
+    private final StatementRegistry statements;
+    private final BackendMetrics metrics;
+
+    CqlSession(Session session, StatementRegistry statements, BackendMetrics metrics) {
+        this.session = session;
+        this.statements = statements;
+        this.metrics = metrics;
+    }
+
+    BoundStatement bind(CqlStatement statement, Object... values) {
+        return statements.bind(statement, values);
+    }
+
+    ResultSet execute(CqlStatement statement, Object... values) {
+        return execute(statement.name(), bind(statement, values));
+    }
+
+    ResultSet execute(String name, Statement statement) {
+        withDefaultConsistency(statement);
+        OperationTimer timer = metrics.statement(name);
+        return timer.time(() -> session.execute(statement));
+    }
+
+    CompletableFuture<ResultSet> executeAsync(CqlStatement statement, Object... values) {
+        return executeAsync(statement.name(), bind(statement, values));
+    }
+
+    /**
+     * Runs the statement at the level of {@code profile} instead of the statement's own.
+     */
+    CompletableFuture<ResultSet> executeAsync(CqlStatement statement, ConsistencyProfile profile, Object... values) {
+        return executeAsync(statement.name(), bind(statement, values).setConsistencyLevel(statements.getConsistency(profile)));
+    }
+
+    CompletableFuture<ResultSet> executeAsync(String name, Statement statement) {
+        withDefaultConsistency(statement);
+        OperationTimer timer = metrics.statement(name);
+        return timer.timeAsync(() -> AsyncSupport.toCompletable(session.executeAsync(statement)));
+    }
+
+    private void withDefaultConsistency(Statement statement) {
+        if (statement.getConsistencyLevel() == null) {
+            statement.setConsistencyLevel(statements.getConsistency(ConsistencyProfile.BOOKING));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.trains.backend.cassandra;
+
+import com.trains.backend.ConsistencyProfile;
+
+import static com.trains.backend.ConsistencyProfile.BOOKING;
+import static com.trains.backend.ConsistencyProfile.BROWSE;
+
+/**
+ * Every statement the backend executes. {@link StatementRegistry} prepares all of them once per session, at
+ * the consistency level of the statement's {@link ConsistencyProfile}; statements without one are
+ * {@link ConsistencyProfile#BOOKING}.
+ */
+public enum CqlStatement {
+    // trains
+    SCAN_TRAINS("SELECT * FROM trains WHERE token(train_id, trip_date) > ? AND token(train_id, trip_date) <= ?;", BROWSE),
+    INSERT_INTO_TRAINS("INSERT INTO trains (train_id, trip_date, cars, seats_per_car) VALUES (?, ?, ?, ?);"),
+    DELETE_ALL_FROM_TRAINS("TRUNCATE trains;"),
+    SELECT_AVAILABLE_TRAINS("SELECT train_id, trip_date, cars, seats_per_car FROM trains LIMIT ?;", BROWSE),
+    SELECT_TRAIN("SELECT * FROM trains WHERE train_id = ? AND trip_date = ?;", BROWSE),
+    SELECT_ALL_TRAIN_KEYS("SELECT train_id, trip_date FROM trains;"),
+
+    // timetable
+    INSERT_INTO_TIMETABLE("INSERT INTO timetable (day, trip_date, train_id, cars, seats_per_car) VALUES (?, ?, ?, ?, ?);"),
+    SELECT_TIMETABLE("SELECT train_id, trip_date, cars, seats_per_car FROM timetable WHERE day = ? AND trip_date >= ? AND trip_date < ?;", BROWSE),
+    DELETE_ALL_FROM_TIMETABLE("TRUNCATE timetable;"),
+
+    // users
+    SCAN_USERS("SELECT * FROM users WHERE token(user_id) > ? AND token(user_id) <= ?;", BROWSE),
+    SELECT_USER("SELECT * FROM users WHERE user_id = ?;", BROWSE),
+    INSERT_INTO_USERS("INSERT INTO users (user_id, name) VALUES (?, ?);"),
+    DELETE_ALL_FROM_USERS("TRUNCATE users;"),
+
+    // orders
+    SCAN_ORDERS("SELECT * FROM orders WHERE token(train_id, trip_date) > ? AND token(train_id, trip_date) <= ?;", BROWSE),
+    INSERT_INTO_ORDERS("INSERT INTO orders (order_id, train_id, trip_date, user_id, car, seats_amount) VALUES (?, ?, ?, ?, ?, ?);"),
+    DELETE_ALL_FROM_ORDERS("TRUNCATE orders;"),
+    SELECT_ORDERED_SEATS_GROUP_BY_CAR("SELECT car, SUM(seats_amount) FROM orders WHERE train_id = ? AND trip_date = ? GROUP BY car;"),
+
+    // orders_per_user
+    SCAN_USERS_ORDERS("SELECT * FROM orders_per_user WHERE token(train_id, trip_date, user_id) > ? AND token(train_id, trip_date, user_id) <= ?;", BROWSE),
+    INSERT_INTO_USERS_ORDERS("INSERT INTO orders_per_user (order_id, train_id, trip_date, user_id, car, seats_amount) VALUES (?, ?, ?, ?, ?, ?);"),
+    DELETE_ALL_FROM_USERS_ORDERS("TRUNCATE orders_per_user;"),
+    SELECT_ORDERS("SELECT * FROM orders_per_user WHERE train_id = ? AND trip_date = ? AND user_id = ?;", BROWSE),
+
+    // orders_by_user
+    INSERT_INTO_ORDERS_BY_USER("INSERT INTO orders_by_user (user_id, month, trip_date, order_id, car, train_id, seats_amount) VALUES (?, ?, ?, ?, ?, ?, ?);"),
+    SELECT_ORDERS_BY_USER("SELECT * FROM orders_by_user WHERE user_id = ? AND month = ? AND trip_date >= ? AND trip_date < ?;", BROWSE),
+    DELETE_ALL_FROM_ORDERS_BY_USER("TRUNCATE orders_by_user;"),
+
+    // reservation_holds
+    INSERT_INTO_RESERVATION_HOLDS("INSERT INTO reservation_holds (res_id, train_id, trip_date, user_id, car, seats_amount, expires_at, state) VALUES (?, ?, ?, ?, ?, ?, ?, ?) USING TTL ?;"),
+    SELECT_RESERVATION_HOLD("SELECT * FROM reservation_holds WHERE res_id = ?;"),
+    UPDATE_RESERVATION_HOLD_SEATS("UPDATE reservation_holds USING TTL ? SET seats_amount = ? WHERE res_id = ?;"),
+    UPDATE_RESERVATION_HOLD_STATE("UPDATE reservation_holds USING TTL ? SET state = ? WHERE res_id = ? IF state = ?;"),
+    DELETE_ALL_FROM_RESERVATION_HOLDS("TRUNCATE reservation_holds;"),
+
+    // seat_occupancy
+    UPDATE_ORDERED_SEATS("UPDATE seat_occupancy SET ordered = ordered + ? WHERE train_id = ? AND trip_date = ? AND car = ?;"),
+    SELECT_ORDERED_SEATS("SELECT ordered FROM seat_occupancy WHERE train_id = ? AND trip_date = ? AND car = ?;"),
+    SELECT_ORDERED_SEATS_BY_TRAIN("SELECT car, ordered FROM seat_occupancy WHERE train_id = ? AND trip_date = ?;"),
+    DELETE_ALL_FROM_OCCUPANCY("TRUNCATE seat_occupancy;"),
+
+    // seat_ledger
+    SELECT_SEAT_LEDGER("SELECT granted FROM seat_ledger WHERE train_id = ? AND trip_date = ? AND car = ?;"),
+    INSERT_SEAT_LEDGER("INSERT INTO seat_ledger (train_id, trip_date, car, granted) VALUES (?, ?, ?, ?) IF NOT EXISTS;"),
+    UPDATE_SEAT_LEDGER("UPDATE seat_ledger SET granted = ? WHERE train_id = ? AND trip_date = ? AND car = ? IF granted = ?;"),
+    DELETE_ALL_FROM_SEAT_LEDGER("TRUNCATE seat_ledger;"),
+
+    // held_seats
+    UPDATE_HELD_SEATS("UPDATE held_seats SET held = held + ? WHERE train_id = ? AND trip_date = ? AND bucket = ? AND car = ?;"),
+    SELECT_LIVE_HELD_SEATS("SELECT car, held FROM held_seats WHERE train_id = ? AND trip_date = ? AND bucket >= ?;"),
+    DELETE_ALL_FROM_HELD_SEATS("TRUNCATE held_seats;");
+
+    private final String cql;
+    private final ConsistencyProfile profile;
+
+    CqlStatement(String cql) {
+        this(cql, BOOKING);
+    }
+
+    CqlStatement(String cql, ConsistencyProfile profile) {
+        this.cql = cql;
+        this.profile = profile;
+    }
+
+    public String getCql() {
+        return cql;
+    }
+
+    public ConsistencyProfile getProfile() {
+        return profile;
+    }
+}
@@ -0,0 +1,102 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.StatementWrapper;
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends a token-range read to a replica of its range. A range query carries no partition key, so the
+ * token-aware policy cannot route it and would pick any coordinator, which then has to forward the whole range
+ * to the replicas. Statements wrapped in {@link Routed} try the local replicas of their range first, in random
+ * order, then the rest of the child policy's plan; every other statement is planned by the child policy alone.
+ */
+final class RangeRoutingPolicy implements ChainableLoadBalancingPolicy {
+    private final LoadBalancingPolicy childPolicy;
+
+    RangeRoutingPolicy(LoadBalancingPolicy childPolicy) {
+        this.childPolicy = childPolicy;
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy() {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts) {
+        childPolicy.init(cluster, hosts);
+    }
+
+    @Override
+    public HostDistance distance(Host host) {
+        return childPolicy.distance(host);
+    }
+
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+        Iterator<Host> childPlan = childPolicy.newQueryPlan(loggedKeyspace, statement);
+        if (!(statement instanceof Routed)) {
+            return childPlan;
+        }
+        List<Host> replicas = new ArrayList<>();
+        for (Host replica : ((Routed) statement).replicas) {
+            if (replica.isUp() && childPolicy.distance(replica) == HostDistance.LOCAL) {
+                replicas.add(replica);
+            }
+        }
+        Collections.shuffle(replicas);
+        Set<Host> plan = new LinkedHashSet<>(replicas);
+        childPlan.forEachRemaining(plan::add);
+        return plan.iterator();
+    }
+
+    @Override
+    public void onAdd(Host host) {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onUp(Host host) {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onDown(Host host) {
+        childPolicy.onDown(host);
+    }
+
+    @Override
+    public void onRemove(Host host) {
+        childPolicy.onRemove(host);
+    }
+
+    @Override
+    public void close() {
+        childPolicy.close();
+    }
+
+    /**
+     * A statement reading one token range, with the replicas that own it. The driver executes the wrapped
+     * statement and hands the wrapper to the load balancing policy, for every page.
+     */
+    static final class Routed extends StatementWrapper {
+        private final Set<Host> replicas;
+
+        Routed(Statement statement, Set<Host> replicas) {
+            super(statement);
+            this.replicas = replicas;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.Row;
+import com.trains.model.Order;
+import com.trains.model.Reservation;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+
+/**
+ * Maps result rows to the immutable domain values.
+ */
+final class RowMappers {
+
+    private RowMappers() {
+    }
+
+    static Train toTrain(Row row) {
+        return new Train(row.getInt("train_id"), row.getTimestamp("trip_date").getTime(), row.getInt("cars"), row.getInt("seats_per_car"));
+    }
+
+    static Order toOrder(Row row) {
+        return new Order(row.getUUID("order_id"), row.getInt("train_id"), row.getTimestamp("trip_date").getTime(),
+                row.getUUID("user_id"), row.getInt("car"), row.getInt("seats_amount"));
+    }
+
+    static Reservation toReservation(Row row) {
+        return new Reservation(row.getUUID("res_id"), TrainKey.of(row.getInt("train_id"), row.getTimestamp("trip_date")),
+                row.getUUID("user_id"), row.getInt("car"), row.getInt("seats_amount"), row.getTimestamp("expires_at").getTime());
+    }
+}
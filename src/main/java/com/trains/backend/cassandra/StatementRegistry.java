@@ -0,0 +1,59 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.trains.backend.AsyncSupport;
+import com.trains.backend.BackendConfig;
+import com.trains.backend.BackendException;
+import com.trains.backend.ConsistencyProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prepares every {@link CqlStatement} once per session, all in parallel, and hands them out to the services.
+ * Each statement is prepared at the consistency level of its {@link ConsistencyProfile}.
+ */
+public class StatementRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(StatementRegistry.class);
+
+    private final Map<CqlStatement, PreparedStatement> statements = new EnumMap<>(CqlStatement.class);
+    private final Map<ConsistencyProfile, ConsistencyLevel> levels = new EnumMap<>(ConsistencyProfile.class);
+
+    public StatementRegistry(Session session, BackendConfig config) throws BackendException {
+        ConsistencyLevel consistency = session.getCluster().getConfiguration().getQueryOptions().getConsistencyLevel();
+        for (ConsistencyProfile profile : ConsistencyProfile.values()) {
+            String level = config.getString(profile.getConfigKey(), "");
+            levels.put(profile, level.isEmpty() ? consistency : ConsistencyLevel.valueOf(level.toUpperCase()));
+        }
+        Map<CqlStatement, CompletableFuture<PreparedStatement>> pending = new EnumMap<>(CqlStatement.class);
+        for (CqlStatement statement : CqlStatement.values()) {
+            pending.put(statement, AsyncSupport.toCompletable(session.prepareAsync(statement.getCql())));
+        }
+        for (Map.Entry<CqlStatement, CompletableFuture<PreparedStatement>> entry : pending.entrySet()) {
+            try {
+                statements.put(entry.getKey(), AsyncSupport.join(entry.getValue()).setConsistencyLevel(levels.get(entry.getKey().getProfile())));
+            } catch (RuntimeException e) {
+                throw new BackendException("Could not prepare statement " + entry.getKey() + ". " + e.getMessage() + ".", e);
+            }
+        }
+        logger.info(statements.size() + " statements prepared, consistency " + levels);
+    }
+
+    public ConsistencyLevel getConsistency(ConsistencyProfile profile) {
+        return levels.get(profile);
+    }
+
+    public PreparedStatement get(CqlStatement statement) {
+        return statements.get(statement);
+    }
+
+    public BoundStatement bind(CqlStatement statement, Object... values) {
+        return new BoundStatement(statements.get(statement)).bind(values);
+    }
+}
@@ -0,0 +1,107 @@
+package com.trains.backend.cassandra;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
+import com.trains.backend.AsyncFanOut;
+import com.trains.backend.AsyncSupport;
+import com.trains.backend.BackendConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads a whole table as token sub-ranges in parallel instead of one unbounded {@code SELECT *} through a single
+ * coordinator. Every range of the ring is read on its own, split further when the ring has fewer than
+ * {@code scan_min_splits} ranges, at most {@code scan_max_in_flight} ranges at a time, each routed to one of
+ * its replicas by {@link RangeRoutingPolicy} and paged by {@code scan_fetch_size} rows.
+ *
+ * <p>The statements select {@code token(partition key) > ? AND token(partition key) <= ?}; a range ending at
+ * the minimum token reads to the end of the ring.
+ */
+final class TokenRangeScanner {
+    private final Session session;
+    private final CqlSession cql;
+    private final int minSplits;
+    private final int maxInFlight;
+    private final int fetchSize;
+
+    TokenRangeScanner(Session session, CqlSession cql, BackendConfig config) {
+        this.session = session;
+        this.cql = cql;
+        this.minSplits = config.getInt("scan_min_splits", 64);
+        this.maxInFlight = config.getInt("scan_max_in_flight", 16);
+        this.fetchSize = config.getInt("scan_fetch_size", 1000);
+    }
+
+    /**
+     * Hands every row to {@code consumer} as its page arrives and completes with the number of rows. The
+     * consumer runs on driver threads, concurrently for different ranges, so it must be thread-safe and must
+     * not block.
+     */
+    <T> CompletableFuture<Long> scan(CqlStatement statement, Function<Row, T> mapper, Consumer<? super T> consumer) {
+        return AsyncFanOut.mapOrdered(splits(), maxInFlight, range -> scanRange(statement, range, mapper, consumer))
+                .thenApply(counts -> counts.stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * All rows in token order, for callers that need the whole table in memory.
+     */
+    <T> List<T> collect(CqlStatement statement, Function<Row, T> mapper) {
+        List<List<T>> ranges = AsyncSupport.join(AsyncFanOut.mapOrdered(splits(), maxInFlight, range -> {
+            List<T> rows = new ArrayList<>();
+            return scanRange(statement, range, mapper, rows::add).thenApply(count -> rows);
+        }));
+        List<T> rows = new ArrayList<>();
+        ranges.forEach(rows::addAll);
+        return rows;
+    }
+
+    private List<TokenRange> splits() {
+        List<TokenRange> ranges = new ArrayList<>();
+        for (TokenRange range : session.getCluster().getMetadata().getTokenRanges()) {
+            ranges.addAll(range.unwrap());
+        }
+        int perRange = Math.max(1, (minSplits + ranges.size() - 1) / Math.max(1, ranges.size()));
+        List<TokenRange> splits = new ArrayList<>();
+        for (TokenRange range : ranges) {
+            splits.addAll(perRange > 1 ? range.splitEvenly(perRange) : Collections.singletonList(range));
+        }
+        Collections.sort(splits);
+        return splits;
+    }
+
+    private <T> CompletableFuture<Long> scanRange(CqlStatement statement, TokenRange range, Function<Row, T> mapper,
+                                                  Consumer<? super T> consumer) {
+        BoundStatement bs = cql.bind(statement).setToken(0, range.getStart()).setToken(1, range.getEnd());
+        bs.setFetchSize(fetchSize);
+        // The logged keyspace is passed unquoted, so the metadata resolves it the way CQL did when connecting.
+        Metadata metadata = session.getCluster().getMetadata();
+        RangeRoutingPolicy.Routed routed = new RangeRoutingPolicy.Routed(bs, metadata.getReplicas(session.getLoggedKeyspace(), range));
+        return cql.executeAsync(statement.name(), routed).thenCompose(rs -> drain(rs, mapper, consumer, 0));
+    }
+
+    /**
+     * Consumes the rows already fetched, then asks for the next page; each page completes on a driver thread,
+     * so the stack does not grow with the number of pages.
+     */
+    private <T> CompletableFuture<Long> drain(ResultSet rs, Function<Row, T> mapper, Consumer<? super T> consumer, long count) {
+        long consumed = count;
+        for (int i = rs.getAvailableWithoutFetching(); i > 0; i--) {
+            consumer.accept(mapper.apply(rs.one()));
+            consumed++;
+        }
+        if (rs.isFullyFetched()) {
+            return CompletableFuture.completedFuture(consumed);
+        }
+        long total = consumed;
+        return AsyncSupport.toCompletable(rs.fetchMoreResults()).thenCompose(next -> drain(next, mapper, consumer, total));
+    }
+}
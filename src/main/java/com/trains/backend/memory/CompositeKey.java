@@ -0,0 +1,33 @@
+package com.trains.backend.memory;
+
+import java.util.Arrays;
+
+/**
+ * A multi-column key, e.g. the (car, order_id) clustering key of orders.
+ */
+final class CompositeKey {
+    private final Object[] parts;
+
+    private CompositeKey(Object[] parts) {
+        this.parts = parts;
+    }
+
+    static CompositeKey of(Object... parts) {
+        return new CompositeKey(parts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof CompositeKey && Arrays.equals(parts, ((CompositeKey) o).parts));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(parts);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(parts);
+    }
+}
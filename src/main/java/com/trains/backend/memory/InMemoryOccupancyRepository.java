@@ -0,0 +1,96 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.ConsistencyProfile;
+import com.trains.backend.OccupancyRepository;
+import com.trains.model.TrainKey;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Each partition is an immutable map replaced atomically, so readers never see half of a counter batch,
+ * matching the isolation Cassandra gives batches within one partition.
+ * There is a single copy, so every {@link ConsistencyProfile} reads the latest value. Expired hold buckets
+ * are dropped when the train's held seats are next read, as Cassandra drops them with their TTL.
+ */
+class InMemoryOccupancyRepository implements OccupancyRepository {
+    private final Map<TrainKey, Map<Integer, Integer>> ordered = new ConcurrentHashMap<>();
+    private final Map<TrainKey, NavigableMap<Long, Map<Integer, Integer>>> held = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Void> addOrderedAsync(TrainKey key, Map<Integer, Integer> deltas) {
+        ordered.compute(key, (k, cars) -> plus(cars, deltas));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Integer> findOrderedAsync(TrainKey key, int car, ConsistencyProfile profile) {
+        return CompletableFuture.completedFuture(findAllOrdered(key).getOrDefault(car, 0));
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, Integer>> findAllOrderedAsync(TrainKey key) {
+        return CompletableFuture.completedFuture(findAllOrdered(key));
+    }
+
+    private Map<Integer, Integer> findAllOrdered(TrainKey key) {
+        return ordered.getOrDefault(key, Collections.<Integer, Integer>emptyMap());
+    }
+
+    @Override
+    public CompletableFuture<Void> addHeldAsync(TrainKey key, long bucket, Map<Integer, Integer> deltas) {
+        held.compute(key, (k, buckets) -> {
+            NavigableMap<Long, Map<Integer, Integer>> updated = buckets != null ? new TreeMap<>(buckets) : new TreeMap<>();
+            updated.put(bucket, plus(updated.get(bucket), deltas));
+            return Collections.unmodifiableNavigableMap(updated);
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, Integer>> findHeldAsync(TrainKey key, long fromBucket, ConsistencyProfile profile) {
+        NavigableMap<Long, Map<Integer, Integer>> buckets = held.get(key);
+        if (buckets != null && buckets.firstKey() < fromBucket) {
+            buckets = held.computeIfPresent(key, (k, current) -> pruned(current, fromBucket));
+        }
+        Map<Integer, Integer> sums = new HashMap<>();
+        if (buckets != null) {
+            for (Map<Integer, Integer> cars : buckets.tailMap(fromBucket, true).values()) {
+                cars.forEach((car, seats) -> sums.merge(car, seats, Integer::sum));
+            }
+        }
+        return CompletableFuture.completedFuture(sums);
+    }
+
+    /**
+     * The buckets from {@code fromBucket} on, or {@code null} to drop the train when none is left.
+     */
+    private static NavigableMap<Long, Map<Integer, Integer>> pruned(NavigableMap<Long, Map<Integer, Integer>> buckets, long fromBucket) {
+        NavigableMap<Long, Map<Integer, Integer>> live = buckets.tailMap(fromBucket, true);
+        if (live.size() == buckets.size()) {
+            return buckets;
+        }
+        return live.isEmpty() ? null : Collections.unmodifiableNavigableMap(new TreeMap<>(live));
+    }
+
+    private static Map<Integer, Integer> plus(Map<Integer, Integer> counters, Map<Integer, Integer> deltas) {
+        Map<Integer, Integer> updated = counters != null ? new HashMap<>(counters) : new HashMap<>();
+        deltas.forEach((car, delta) -> updated.merge(car, delta, Integer::sum));
+        return Collections.unmodifiableMap(updated);
+    }
+
+    @Override
+    public void deleteAllOrdered() {
+        ordered.clear();
+    }
+
+    @Override
+    public void deleteAllHeld() {
+        held.clear();
+    }
+}
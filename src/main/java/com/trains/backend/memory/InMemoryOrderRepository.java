@@ -0,0 +1,61 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.OrderRepository;
+import com.trains.backend.OrderWriteMode;
+import com.trains.model.Order;
+import com.trains.model.TrainKey;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Writes are applied immediately, so every {@link OrderWriteMode} behaves like a logged batch.
+ */
+class InMemoryOrderRepository implements OrderRepository {
+    private final PartitionedTable<TrainKey, CompositeKey, Order> orders = new PartitionedTable<>();
+    private final InMemoryUserOrderRepository userOrders;
+
+    InMemoryOrderRepository(InMemoryUserOrderRepository userOrders) {
+        this.userOrders = userOrders;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return orders.all();
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Order> consumer) {
+        List<Order> rows = findAll();
+        rows.forEach(consumer);
+        return CompletableFuture.completedFuture((long) rows.size());
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Order order, OrderWriteMode mode) {
+        orders.put(order.getTrainKey(), CompositeKey.of(order.getCar(), order.getOrderId()), order);
+        userOrders.save(order);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAllAsync(TrainKey key, List<Order> orders, OrderWriteMode mode) {
+        for (Order order : orders) {
+            saveAsync(order, mode);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public Map<Integer, Integer> sumSeatsByCar(TrainKey key) {
+        return orders.partition(key).stream().collect(Collectors.groupingBy(Order::getCar, Collectors.summingInt(Order::getSeatsAmount)));
+    }
+
+    @Override
+    public void deleteAll() {
+        orders.clear();
+    }
+}
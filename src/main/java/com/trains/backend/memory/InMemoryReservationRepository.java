@@ -0,0 +1,53 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.HoldState;
+import com.trains.backend.ReservationRepository;
+import com.trains.model.Reservation;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Only open holds are kept: a closed hold is no longer visible through this interface, so it is dropped right
+ * away. Expired holds are treated as absent and dropped when they are next touched, like rows past their TTL.
+ */
+class InMemoryReservationRepository implements ReservationRepository {
+    private final Map<UUID, Reservation> holds = new ConcurrentHashMap<>();
+
+    @Override
+    public Reservation find(UUID resId) {
+        Reservation hold = holds.get(resId);
+        if (hold != null && hold.getExpiresAt() <= System.currentTimeMillis()) {
+            holds.remove(resId, hold);
+            return null;
+        }
+        return hold;
+    }
+
+    @Override
+    public void save(Reservation reservation) {
+        holds.put(reservation.getResId(), reservation);
+    }
+
+    @Override
+    public void updateSeats(Reservation reservation, int seatsAmount) {
+        holds.computeIfPresent(reservation.getResId(), (id, hold) -> hold.withSeatsAmount(seatsAmount));
+    }
+
+    @Override
+    public boolean changeState(Reservation reservation, HoldState expected, HoldState state) {
+        // Only open holds are kept: leaving HELD removes the hold and going back to it puts the hold back.
+        if (expected == HoldState.HELD) {
+            Reservation hold = holds.remove(reservation.getResId());
+            return hold != null && hold.getExpiresAt() > System.currentTimeMillis();
+        }
+        return state == HoldState.HELD && reservation.getExpiresAt() > System.currentTimeMillis()
+                && holds.putIfAbsent(reservation.getResId(), reservation) == null;
+    }
+
+    @Override
+    public void deleteAll() {
+        holds.clear();
+    }
+}
@@ -0,0 +1,29 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.SeatLedgerRepository;
+import com.trains.model.TrainKey;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+class InMemorySeatLedgerRepository implements SeatLedgerRepository {
+    private final Map<CompositeKey, Integer> granted = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Integer> findGrantedAsync(TrainKey key, int car) {
+        return CompletableFuture.completedFuture(granted.get(CompositeKey.of(key, car)));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> compareAndSetGrantedAsync(TrainKey key, int car, Integer expected, int value) {
+        CompositeKey entry = CompositeKey.of(key, car);
+        boolean applied = expected == null ? granted.putIfAbsent(entry, value) == null : granted.replace(entry, expected, value);
+        return CompletableFuture.completedFuture(applied);
+    }
+
+    @Override
+    public void deleteAll() {
+        granted.clear();
+    }
+}
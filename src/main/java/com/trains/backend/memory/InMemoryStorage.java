@@ -0,0 +1,72 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.OccupancyRepository;
+import com.trains.backend.OrderRepository;
+import com.trains.backend.ReservationRepository;
+import com.trains.backend.SeatLedgerRepository;
+import com.trains.backend.Storage;
+import com.trains.backend.TrainRepository;
+import com.trains.backend.UserOrderRepository;
+import com.trains.backend.UserRepository;
+
+/**
+ * The repositories kept in concurrent maps in this JVM. Nothing is persisted; useful for offline runs and for
+ * measuring the services without database latency.
+ */
+public class InMemoryStorage implements Storage {
+    private static final InMemoryStorage SHARED = new InMemoryStorage();
+
+    private final TrainRepository trains = new InMemoryTrainRepository();
+    private final InMemoryUserOrderRepository userOrders = new InMemoryUserOrderRepository();
+    private final OrderRepository orders = new InMemoryOrderRepository(userOrders);
+    private final ReservationRepository reservations = new InMemoryReservationRepository();
+    private final UserRepository users = new InMemoryUserRepository();
+    private final OccupancyRepository occupancy = new InMemoryOccupancyRepository();
+    private final SeatLedgerRepository seatLedger = new InMemorySeatLedgerRepository();
+
+    /**
+     * One storage per JVM, so separate sessions see each other's writes like sessions on the same cluster.
+     */
+    public static InMemoryStorage shared() {
+        return SHARED;
+    }
+
+    @Override
+    public TrainRepository trains() {
+        return trains;
+    }
+
+    @Override
+    public OrderRepository orders() {
+        return orders;
+    }
+
+    @Override
+    public UserOrderRepository userOrders() {
+        return userOrders;
+    }
+
+    @Override
+    public ReservationRepository reservations() {
+        return reservations;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public OccupancyRepository occupancy() {
+        return occupancy;
+    }
+
+    @Override
+    public SeatLedgerRepository seatLedger() {
+        return seatLedger;
+    }
+
+    @Override
+    public void close() {
+    }
+}
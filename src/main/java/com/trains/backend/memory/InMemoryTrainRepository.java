@@ -0,0 +1,90 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.TrainRepository;
+import com.trains.model.Page;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+class InMemoryTrainRepository implements TrainRepository {
+    private final Map<TrainKey, Train> trains = new ConcurrentHashMap<>();
+    private final NavigableMap<TrainKey, Train> timetable = new ConcurrentSkipListMap<>(
+            Comparator.comparingLong(TrainKey::getTripDate).thenComparingInt(TrainKey::getTrainId));
+
+    @Override
+    public List<Train> findAll() {
+        return new ArrayList<>(trains.values());
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Train> consumer) {
+        List<Train> rows = findAll();
+        rows.forEach(consumer);
+        return CompletableFuture.completedFuture((long) rows.size());
+    }
+
+    @Override
+    public CompletableFuture<Train> findAsync(TrainKey key) {
+        return CompletableFuture.completedFuture(trains.get(key));
+    }
+
+    @Override
+    public CompletableFuture<List<Train>> findFirstAsync(int limit) {
+        return CompletableFuture.completedFuture(trains.values().stream().limit(limit).collect(Collectors.toList()));
+    }
+
+    /**
+     * The paging state is the key of the last train returned.
+     */
+    @Override
+    public CompletableFuture<Page<Train>> findDepartingAsync(int day, long from, long to, int limit, String pagingState) {
+        long start = Math.max(from, day * TrainKey.DAY_MILLIS);
+        long end = Math.min(to, (day + 1) * TrainKey.DAY_MILLIS);
+        List<Train> page = new ArrayList<>();
+        if (start < end) {
+            NavigableMap<TrainKey, Train> range = timetable.subMap(new TrainKey(Integer.MIN_VALUE, start), true,
+                    new TrainKey(Integer.MIN_VALUE, end), false);
+            if (pagingState != null) {
+                int separator = pagingState.indexOf('@');
+                TrainKey last = new TrainKey(Integer.parseInt(pagingState.substring(0, separator)),
+                        Long.parseLong(pagingState.substring(separator + 1)));
+                range = range.tailMap(last, false);
+            }
+            for (Train train : range.values()) {
+                if (page.size() == limit) {
+                    return CompletableFuture.completedFuture(new Page<>(page, page.get(limit - 1).getKey().toString()));
+                }
+                page.add(train);
+            }
+        }
+        return CompletableFuture.completedFuture(new Page<>(page, null));
+    }
+
+    @Override
+    public List<TrainKey> findAllKeys() {
+        return new ArrayList<>(trains.keySet());
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Train train) {
+        trains.put(train.getKey(), train);
+        timetable.put(train.getKey(), train);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void deleteAll() {
+        trains.clear();
+        timetable.clear();
+    }
+}
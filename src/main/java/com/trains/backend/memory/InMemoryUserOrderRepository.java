@@ -0,0 +1,97 @@
+package com.trains.backend.memory;
+
+import com.trains.backend.UserOrderRepository;
+import com.trains.model.Order;
+import com.trains.model.Page;
+import com.trains.model.TrainKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+class InMemoryUserOrderRepository implements UserOrderRepository {
+    /**
+     * Clustering order of orders_by_user: trip date, order id, car.
+     */
+    private static final Comparator<Order> HISTORY_ORDER = Comparator.comparingLong(Order::getTripDate)
+            .thenComparing(Order::getOrderId).thenComparingInt(Order::getCar);
+    private static final UUID MIN_UUID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final PartitionedTable<CompositeKey, CompositeKey, Order> ordersPerUser = new PartitionedTable<>();
+    private final Map<CompositeKey, NavigableSet<Order>> ordersByUser = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Order> findAll() {
+        return ordersPerUser.all();
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Order> consumer) {
+        List<Order> rows = findAll();
+        rows.forEach(consumer);
+        return CompletableFuture.completedFuture((long) rows.size());
+    }
+
+    @Override
+    public List<Order> findByUser(TrainKey key, UUID userId) {
+        return new ArrayList<>(ordersPerUser.partition(CompositeKey.of(key, userId)));
+    }
+
+    /**
+     * The paging state is the trip date, order id and car of the last order returned.
+     */
+    @Override
+    public CompletableFuture<Page<Order>> findHistoryAsync(UUID userId, int month, long from, long to, int limit, String pagingState) {
+        NavigableSet<Order> partition = ordersByUser.get(CompositeKey.of(userId, month));
+        List<Order> page = new ArrayList<>();
+        if (partition != null) {
+            NavigableSet<Order> range = partition.subSet(probe(from, MIN_UUID, Integer.MIN_VALUE), true,
+                    probe(to, MIN_UUID, Integer.MIN_VALUE), false);
+            if (pagingState != null) {
+                String[] last = pagingState.split("/");
+                range = range.tailSet(probe(Long.parseLong(last[0]), UUID.fromString(last[1]), Integer.parseInt(last[2])), false);
+            }
+            for (Order order : range) {
+                if (page.size() == limit) {
+                    Order last = page.get(limit - 1);
+                    String next = last.getTripDate() + "/" + last.getOrderId() + "/" + last.getCar();
+                    return CompletableFuture.completedFuture(new Page<>(page, next));
+                }
+                page.add(order);
+            }
+        }
+        return CompletableFuture.completedFuture(new Page<>(page, null));
+    }
+
+    private static Order probe(long tripDate, UUID orderId, int car) {
+        return new Order(orderId, 0, tripDate, MIN_UUID, car, 0);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Order order) {
+        save(order);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    void save(Order order) {
+        ordersPerUser.put(CompositeKey.of(order.getTrainKey(), order.getUserId()), CompositeKey.of(order.getOrderId(), order.getCar()), order);
+        NavigableSet<Order> history = ordersByUser.computeIfAbsent(CompositeKey.of(order.getUserId(), order.getHistoryMonth()),
+                key -> new ConcurrentSkipListSet<>(HISTORY_ORDER));
+        // An upsert replaces the row with the same clustering key.
+        history.remove(order);
+        history.add(order);
+    }
+
+    @Override
+    public void deleteAll() {
+        ordersPerUser.clear();
+        ordersByUser.clear();
+    }
+}
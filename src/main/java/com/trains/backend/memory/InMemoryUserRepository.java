@@ -0,0 +1,44 @@
+package com.trains.backend.memory;
+
+import com.trains.Client;
+import com.trains.backend.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+
+class InMemoryUserRepository implements UserRepository {
+    private final Map<UUID, Client> users = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Client> findAll() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public CompletableFuture<Long> scanAsync(Consumer<? super Client> consumer) {
+        List<Client> rows = findAll();
+        rows.forEach(consumer);
+        return CompletableFuture.completedFuture((long) rows.size());
+    }
+
+    @Override
+    public Client find(UUID userId) {
+        return users.get(userId);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Client client) {
+        users.put(client.getUserId(), client);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void deleteAll() {
+        users.clear();
+    }
+}
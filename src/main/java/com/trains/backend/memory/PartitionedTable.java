@@ -0,0 +1,49 @@
+package com.trains.backend.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A table as Cassandra lays it out: rows grouped by partition key, addressed by clustering key inside the
+ * partition. Both levels are {@link ConcurrentHashMap}s, so writers only contend on the same hash bin.
+ */
+final class PartitionedTable<P, C, V> {
+    private final Map<P, Map<C, V>> partitions = new ConcurrentHashMap<>();
+
+    void put(P partition, C clustering, V value) {
+        partitions.computeIfAbsent(partition, p -> new ConcurrentHashMap<>()).put(clustering, value);
+    }
+
+    V get(P partition, C clustering) {
+        Map<C, V> rows = partitions.get(partition);
+        return rows != null ? rows.get(clustering) : null;
+    }
+
+    void remove(P partition, C clustering) {
+        Map<C, V> rows = partitions.get(partition);
+        if (rows != null) {
+            rows.remove(clustering);
+        }
+    }
+
+    Collection<V> partition(P partition) {
+        Map<C, V> rows = partitions.get(partition);
+        return rows != null ? rows.values() : Collections.<V>emptyList();
+    }
+
+    List<V> all() {
+        List<V> values = new ArrayList<>();
+        for (Map<C, V> rows : partitions.values()) {
+            values.addAll(rows.values());
+        }
+        return values;
+    }
+
+    void clear() {
+        partitions.clear();
+    }
+}
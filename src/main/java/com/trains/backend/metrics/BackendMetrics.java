@@ -0,0 +1,143 @@
+package com.trains.backend.metrics;
+
+import com.datastax.driver.core.Metrics;
+import com.trains.backend.BackendConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timers of one backend session: one per executed statement and one per service operation, plus the counts of
+ * each read coalescer. Each is registered over JMX as
+ * {@code com.trains:type=Statement|Operation|Coalescer,session=N,name=...}, and a daemon thread logs what was
+ * recorded since the previous report every {@code metrics_report_interval_seconds}.
+ */
+public class BackendMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(BackendMetrics.class);
+    private static final String DOMAIN = "com.trains";
+    private static final AtomicInteger sessions = new AtomicInteger();
+
+    private final String session = String.valueOf(sessions.incrementAndGet());
+    private final boolean jmxEnabled;
+    private final Map<String, OperationTimer> statements = new ConcurrentHashMap<>();
+    private final Map<String, OperationTimer> operations = new ConcurrentHashMap<>();
+    private final Map<String, Coalescer> coalescers = new ConcurrentHashMap<>();
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+    private volatile DriverPool driverPool;
+    private ScheduledExecutorService reporter;
+
+    public BackendMetrics(BackendConfig config) {
+        jmxEnabled = config.getBoolean("metrics_jmx_enabled", true);
+        long interval = config.getLong("metrics_report_interval_seconds", 60);
+        if (interval > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-reporter-" + session);
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    public OperationTimer statement(String name) {
+        return statements.computeIfAbsent(name, n -> register("Statement", new OperationTimer(n)));
+    }
+
+    public OperationTimer operation(String name) {
+        return operations.computeIfAbsent(name, n -> register("Operation", new OperationTimer(n)));
+    }
+
+    public Coalescer coalescer(String name) {
+        return coalescers.computeIfAbsent(name, n -> register("Coalescer", new Coalescer(n), n));
+    }
+
+    public void bindDriverMetrics(Metrics metrics) {
+        driverPool = register("DriverPool", new DriverPool(metrics), "pool");
+    }
+
+    public Map<String, OperationTimer> getStatementTimers() {
+        return new TreeMap<>(statements);
+    }
+
+    public Map<String, OperationTimer> getOperationTimers() {
+        return new TreeMap<>(operations);
+    }
+
+    public Map<String, Coalescer> getCoalescers() {
+        return new TreeMap<>(coalescers);
+    }
+
+    private OperationTimer register(String type, OperationTimer timer) {
+        return register(type, timer, timer.getName());
+    }
+
+    private <T> T register(String type, T bean, String name) {
+        if (!jmxEnabled) {
+            return bean;
+        }
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",session=" + session + ",name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+            registered.add(objectName);
+        } catch (Exception e) {
+            logger.warn("Could not register " + type + " " + name + " over JMX: " + e.getMessage());
+        }
+        return bean;
+    }
+
+    void report() {
+        try {
+            for (OperationTimer timer : getOperationTimers().values()) {
+                log("operation", timer);
+            }
+            for (OperationTimer timer : getStatementTimers().values()) {
+                log("statement", timer);
+            }
+            for (Coalescer coalescer : getCoalescers().values()) {
+                String report = coalescer.reportSinceLastReport();
+                if (report != null) {
+                    logger.info("coalescer " + coalescer.getName() + " " + report);
+                }
+            }
+            if (driverPool != null) {
+                logger.info("driver pool " + driverPool);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Metrics report failed: " + e.getMessage());
+        }
+    }
+
+    private void log(String kind, OperationTimer timer) {
+        LatencySnapshot snapshot = timer.snapshotSinceLastReport();
+        if (snapshot.getCount() > 0) {
+            logger.info(kind + " " + timer.getName() + " " + snapshot + " errors=" + timer.getErrors() + " inFlight=" + timer.getInFlight());
+        }
+    }
+
+    public void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (Exception e) {
+                logger.warn("Could not unregister " + name + ": " + e.getMessage());
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.trains.backend.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests a read coalescer answered and the storage reads it sent for them.
+ */
+public class Coalescer implements CoalescerMXBean {
+    private final String name;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private long reportedRequests;
+    private long reportedLoads;
+
+    Coalescer(String name) {
+        this.name = name;
+    }
+
+    public void recordRequest() {
+        requests.increment();
+    }
+
+    public void recordLoad() {
+        loads.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    @Override
+    public double getCoalescingRatio() {
+        return ratio(getRequests(), getLoads());
+    }
+
+    /**
+     * Requests, loads and ratio since the previous call; only the reporter thread calls it.
+     */
+    String reportSinceLastReport() {
+        long requestsNow = getRequests();
+        long loadsNow = getLoads();
+        long newRequests = requestsNow - reportedRequests;
+        long newLoads = loadsNow - reportedLoads;
+        reportedRequests = requestsNow;
+        reportedLoads = loadsNow;
+        return newRequests == 0 ? null
+                : String.format("requests=%d loads=%d ratio=%.1f", newRequests, newLoads, ratio(newRequests, newLoads));
+    }
+
+    private static double ratio(long requests, long loads) {
+        return loads == 0 ? 1.0 : (double) requests / loads;
+    }
+}
@@ -0,0 +1,18 @@
+package com.trains.backend.metrics;
+
+/**
+ * JMX view of a read coalescer: how many reads were asked for and how many actually went to storage.
+ */
+public interface CoalescerMXBean {
+
+    String getName();
+
+    long getRequests();
+
+    long getLoads();
+
+    /**
+     * Requests per storage read; 1.0 when nothing was shared.
+     */
+    double getCoalescingRatio();
+}
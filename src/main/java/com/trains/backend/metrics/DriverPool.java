@@ -0,0 +1,58 @@
+package com.trains.backend.metrics;
+
+import com.datastax.driver.core.Metrics;
+
+class DriverPool implements DriverPoolMXBean {
+    private final Metrics metrics;
+
+    DriverPool(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int getConnectedHosts() {
+        return metrics.getConnectedToHosts().getValue();
+    }
+
+    @Override
+    public int getOpenConnections() {
+        return metrics.getOpenConnections().getValue();
+    }
+
+    @Override
+    public int getTrashedConnections() {
+        return metrics.getTrashedConnections().getValue();
+    }
+
+    @Override
+    public int getInFlightRequests() {
+        return metrics.getInFlightRequests().getValue();
+    }
+
+    @Override
+    public int getExecutorQueueDepth() {
+        return metrics.getExecutorQueueDepth().getValue();
+    }
+
+    @Override
+    public long getReadTimeouts() {
+        return metrics.getErrorMetrics().getReadTimeouts().getCount();
+    }
+
+    @Override
+    public long getWriteTimeouts() {
+        return metrics.getErrorMetrics().getWriteTimeouts().getCount();
+    }
+
+    @Override
+    public long getConnectionErrors() {
+        return metrics.getErrorMetrics().getConnectionErrors().getCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hosts=%d connections=%d trashed=%d inFlight=%d queue=%d readTimeouts=%d writeTimeouts=%d connectionErrors=%d",
+                getConnectedHosts(), getOpenConnections(), getTrashedConnections(), getInFlightRequests(), getExecutorQueueDepth(),
+                getReadTimeouts(), getWriteTimeouts(), getConnectionErrors());
+    }
+}
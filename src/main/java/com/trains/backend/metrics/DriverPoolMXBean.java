@@ -0,0 +1,24 @@
+package com.trains.backend.metrics;
+
+/**
+ * JMX view of the driver's connection pools. The driver publishes its full metric set under its own domain
+ * as well; these are the gauges we watch next to the statement timers.
+ */
+public interface DriverPoolMXBean {
+
+    int getConnectedHosts();
+
+    int getOpenConnections();
+
+    int getTrashedConnections();
+
+    int getInFlightRequests();
+
+    int getExecutorQueueDepth();
+
+    long getReadTimeouts();
+
+    long getWriteTimeouts();
+
+    long getConnectionErrors();
+}
@@ -0,0 +1,53 @@
+package com.trains.backend.metrics;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency percentiles of a histogram of nanosecond values, converted to microseconds.
+ */
+public final class LatencySnapshot {
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p99;
+    private final double p999;
+    private final double max;
+
+    LatencySnapshot(Histogram histogram) {
+        count = histogram.getTotalCount();
+        mean = histogram.getMean() / 1000.0;
+        p50 = histogram.getValueAtPercentile(50) / 1000.0;
+        p99 = histogram.getValueAtPercentile(99) / 1000.0;
+        p999 = histogram.getValueAtPercentile(99.9) / 1000.0;
+        max = histogram.getMaxValue() / 1000.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus", count, mean, p50, p99, p999, max);
+    }
+}
@@ -0,0 +1,152 @@
+package com.trains.backend.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram, error count and in-flight gauge of one statement or operation. Recording is lock-free;
+ * readers drain the recorder into the cumulative and the since-last-report histograms under a lock that does
+ * not pin virtual threads.
+ */
+public class OperationTimer implements OperationTimerMXBean {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final Histogram sinceReport = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Marks the start of one call; pass the result to {@link #stop(long, Throwable)}.
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void stop(long start, Throwable error) {
+        inFlight.decrementAndGet();
+        recorder.recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_NANOS));
+        if (error != null) {
+            errors.increment();
+        }
+    }
+
+    public <T> T time(Supplier<T> operation) {
+        long start = start();
+        try {
+            T result = operation.get();
+            stop(start, null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            stop(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Times until the returned future completes, not just until the call returns.
+     */
+    public <T> CompletableFuture<T> timeAsync(Supplier<CompletableFuture<T>> operation) {
+        long start = start();
+        CompletableFuture<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException | Error e) {
+            stop(start, e);
+            throw e;
+        }
+        return future.whenComplete((result, error) -> stop(start, error));
+    }
+
+    public LatencySnapshot snapshot() {
+        lock.lock();
+        try {
+            drain();
+            return new LatencySnapshot(total);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Latencies recorded since the previous call, for the periodic reporter.
+     */
+    LatencySnapshot snapshotSinceLastReport() {
+        lock.lock();
+        try {
+            drain();
+            LatencySnapshot snapshot = new LatencySnapshot(sinceReport);
+            sinceReport.reset();
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        sinceReport.add(interval);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return snapshot().getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return snapshot().getMean();
+    }
+
+    @Override
+    public double getP50Micros() {
+        return snapshot().getP50();
+    }
+
+    @Override
+    public double getP99Micros() {
+        return snapshot().getP99();
+    }
+
+    @Override
+    public double getP999Micros() {
+        return snapshot().getP999();
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return snapshot().getMax();
+    }
+}
@@ -0,0 +1,26 @@
+package com.trains.backend.metrics;
+
+/**
+ * JMX view of one {@link OperationTimer}. Latencies are in microseconds and cover everything recorded since
+ * the session started.
+ */
+public interface OperationTimerMXBean {
+
+    String getName();
+
+    long getCount();
+
+    long getErrors();
+
+    int getInFlight();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,260 @@
+package com.trains.bulk;
+
+import com.trains.Client;
+import com.trains.backend.AsyncFanOut;
+import com.trains.backend.AsyncSupport;
+import com.trains.backend.BackendConfig;
+import com.trains.backend.BackendException;
+import com.trains.backend.BackendSession;
+import com.trains.backend.OccupancyService;
+import com.trains.backend.OrderService;
+import com.trains.backend.TrainService;
+import com.trains.backend.UserService;
+import com.trains.model.Order;
+import com.trains.model.Train;
+import com.trains.model.TrainKey;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads trains, users and orders from CSV or JSONL files. Files are read in chunks of {@code import_chunk_rows}
+ * records; the writes of a chunk go out concurrently with at most {@code import_max_in_flight} requests
+ * outstanding, and the checkpoint is advanced once the whole chunk is acknowledged.
+ *
+ * <p>Columns: trains {@code train_id,trip_date,cars,seats_per_car}; users {@code user_id,name}; orders
+ * {@code order_id,train_id,trip_date,user_id,car,seats}. {@code trip_date} is epoch millis or
+ * {@code yyyy-MM-dd HH:mm:ss}. Settings come from config.properties and can be overridden with
+ * {@code key=value} arguments, e.g. {@code import_orders=orders.csv import_max_in_flight=512}.
+ */
+public final class BulkImporter {
+    private final TrainService trainService;
+    private final UserService userService;
+    private final OrderService orderService;
+    private final OccupancyService occupancyService;
+    private final int maxInFlight;
+    private final int batchRows;
+    private final int chunkRows;
+    private final boolean trustedOrders;
+    private final boolean rebuildOccupancy;
+    private final Path checkpointPath;
+
+    public BulkImporter(BackendSession session, BackendConfig config) {
+        this.trainService = session.getTrainService();
+        this.userService = session.getUserService();
+        this.orderService = session.getOrderService();
+        this.occupancyService = session.getOccupancyService();
+        this.maxInFlight = config.getInt("import_max_in_flight", 256);
+        this.batchRows = config.getInt("import_batch_rows", 100);
+        this.chunkRows = config.getInt("import_chunk_rows", 10_000);
+        this.trustedOrders = config.getBoolean("import_trusted_orders", true);
+        this.rebuildOccupancy = config.getBoolean("import_rebuild_occupancy", false);
+        this.checkpointPath = Paths.get(config.getString("import_checkpoint", "build/import/checkpoint.properties"));
+    }
+
+    public static void main(String[] args) throws BackendException, IOException {
+        BackendConfig config = BackendConfig.load();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            config = config.with(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        BackendSession session = new BackendSession(config.getString("contact_point", "127.0.0.1:9042"),
+                config.getString("keyspace", "Pociagi"), config.getString("consistency", "QUORUM"), config);
+
+        BulkImporter importer = new BulkImporter(session, config);
+        List<FileResult> results = new ArrayList<>();
+        String trains = config.getString("import_trains", "");
+        String users = config.getString("import_users", "");
+        String orders = config.getString("import_orders", "");
+        if (!trains.isEmpty()) {
+            results.add(importer.importTrains(Paths.get(trains)));
+        }
+        if (!users.isEmpty()) {
+            results.add(importer.importUsers(Paths.get(users)));
+        }
+        if (!orders.isEmpty()) {
+            results.add(importer.importOrders(Paths.get(orders)));
+        }
+        if (results.isEmpty()) {
+            System.out.println("Nothing to import: set import_trains, import_users and/or import_orders");
+        }
+        for (FileResult result : results) {
+            result.print(System.out);
+        }
+        session.close();
+        System.exit(0);
+    }
+
+    public FileResult importTrains(Path file) throws IOException {
+        return importFile("trains", file, (chunk, touched) -> {
+            List<Train> trains = new ArrayList<>(chunk.size());
+            for (Map<String, String> record : chunk) {
+                trains.add(new Train(integer(record, "train_id"), tripDate(record), integer(record, "cars"),
+                        integer(record, "seats_per_car")));
+            }
+            return AsyncFanOut.mapOrdered(trains, maxInFlight, trainService::upsertTrainAsync).thenApply(done -> 0);
+        });
+    }
+
+    public FileResult importUsers(Path file) throws IOException {
+        return importFile("users", file, (chunk, touched) -> {
+            List<Client> users = new ArrayList<>(chunk.size());
+            for (Map<String, String> record : chunk) {
+                users.add(new Client(uuid(record, "user_id"), field(record, "name")));
+            }
+            return AsyncFanOut.mapOrdered(users, maxInFlight, userService::upsertUserAsync).thenApply(done -> 0);
+        });
+    }
+
+    /**
+     * Trusted orders are grouped by train and written {@code import_batch_rows} at a time, one batch per
+     * partition and no availability check. Otherwise every order goes through the regular booking path and
+     * the ones it refuses are counted as rejected.
+     */
+    public FileResult importOrders(Path file) throws IOException {
+        FileResult result = importFile("orders", file, (chunk, touched) -> {
+            Map<TrainKey, List<Order>> byTrain = new LinkedHashMap<>();
+            for (Map<String, String> record : chunk) {
+                Order order = new Order(uuid(record, "order_id"), integer(record, "train_id"), tripDate(record),
+                        uuid(record, "user_id"), integer(record, "car"), integer(record, "seats"));
+                byTrain.computeIfAbsent(order.getTrainKey(), key -> new ArrayList<>()).add(order);
+            }
+            touched.addAll(byTrain.keySet());
+            if (!trustedOrders) {
+                List<Order> orders = new ArrayList<>(chunk.size());
+                byTrain.values().forEach(orders::addAll);
+                return AsyncFanOut.mapOrdered(orders, maxInFlight, orderService::upsertOrderAsync)
+                        .thenApply(placed -> (int) placed.stream().filter(accepted -> !accepted).count());
+            }
+            List<List<Order>> batches = new ArrayList<>();
+            for (List<Order> orders : byTrain.values()) {
+                for (int from = 0; from < orders.size(); from += batchRows) {
+                    batches.add(orders.subList(from, Math.min(orders.size(), from + batchRows)));
+                }
+            }
+            return AsyncFanOut.mapOrdered(batches, maxInFlight,
+                    batch -> orderService.importOrdersAsync(batch.get(0).getTrainKey(), batch)).thenApply(done -> 0);
+        });
+
+        // Order rows are idempotent but counter increments are not: a chunk replayed after a crash, or orders
+        // imported twice, leave the counters too high until they are recounted from the rows.
+        if (trustedOrders && (rebuildOccupancy || result.resumed)) {
+            for (TrainKey key : result.touched) {
+                occupancyService.rebuildOccupancy(key.getTrainId(), key.getTripDate());
+            }
+        }
+        return result;
+    }
+
+    private FileResult importFile(String kind, Path file, ChunkWriter writer) throws IOException {
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(checkpointPath);
+        FileResult result = new FileResult(kind, file);
+        long start = System.nanoTime();
+        try (RecordReader reader = RecordReader.open(file)) {
+            long committed = checkpoint.committed(file);
+            result.skipped = reader.skip(committed);
+            result.resumed = committed > 0;
+            List<Map<String, String>> chunk = new ArrayList<>(chunkRows);
+            Map<String, String> record;
+            do {
+                record = reader.next();
+                if (record != null) {
+                    chunk.add(record);
+                }
+                if (chunk.size() == chunkRows || (record == null && !chunk.isEmpty())) {
+                    result.rejected += AsyncSupport.join(writer.write(chunk, result.touched));
+                    committed += chunk.size();
+                    result.rows += chunk.size();
+                    checkpoint.commit(file, committed);
+                    chunk.clear();
+                }
+            } while (record != null);
+        }
+        result.seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        return result;
+    }
+
+    private interface ChunkWriter {
+        /**
+         * Starts the writes for {@code chunk}, adds the trains they touch to {@code touched} and completes with
+         * the number of records refused, once every write is acknowledged.
+         */
+        CompletableFuture<Integer> write(List<Map<String, String>> chunk, Set<TrainKey> touched);
+    }
+
+    private static String field(Map<String, String> record, String name) {
+        String value = record.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + name + " in " + record);
+        }
+        return value;
+    }
+
+    private static int integer(Map<String, String> record, String name) {
+        return Integer.parseInt(field(record, name));
+    }
+
+    private static UUID uuid(Map<String, String> record, String name) {
+        return UUID.fromString(field(record, name));
+    }
+
+    private static long tripDate(Map<String, String> record) {
+        String value = field(record, "trip_date");
+        return value.chars().allMatch(Character::isDigit) ? Long.parseLong(value) : Timestamp.valueOf(value).getTime();
+    }
+
+    /**
+     * Outcome of importing one file; {@code rows} counts only the records written by this run.
+     */
+    public static final class FileResult {
+        private final String kind;
+        private final Path file;
+        private final Set<TrainKey> touched = new LinkedHashSet<>();
+        private long rows;
+        private long skipped;
+        private long rejected;
+        private boolean resumed;
+        private double seconds;
+
+        private FileResult(String kind, Path file) {
+            this.kind = kind;
+            this.file = file;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public double getRowsPerSecond() {
+            return seconds > 0 ? rows / seconds : 0;
+        }
+
+        public void print(PrintStream out) {
+            out.println(String.format("%-7s %s: %d rows in %.1f s (%.0f rows/s), %d skipped from checkpoint, %d rejected",
+                    kind, file, rows, seconds, getRowsPerSecond(), skipped, rejected));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.trains.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Number of records of each import file that are known to be written, persisted after every chunk so an
+ * interrupted import resumes where it stopped instead of starting over.
+ */
+final class ImportCheckpoint {
+    private final Path path;
+    private final Properties committed = new Properties();
+
+    private ImportCheckpoint(Path path) {
+        this.path = path;
+    }
+
+    static ImportCheckpoint load(Path path) throws IOException {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(path);
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                checkpoint.committed.load(in);
+            }
+        }
+        return checkpoint;
+    }
+
+    long committed(Path file) {
+        return Long.parseLong(committed.getProperty(key(file), "0"));
+    }
+
+    /**
+     * Records {@code rows} as written and replaces the checkpoint file atomically, so a crash mid-write leaves
+     * the previous checkpoint in place.
+     */
+    void commit(Path file, long rows) throws IOException {
+        committed.setProperty(key(file), Long.toString(rows));
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "checkpoint", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            committed.store(out, "Rows committed per import file");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,217 @@
+package com.trains.bulk;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the records of an import file one at a time as column name to value maps. Files ending in
+ * {@code .jsonl} hold one flat JSON object per line; anything else is read as CSV with a header row.
+ */
+abstract class RecordReader implements Closeable {
+    protected final BufferedReader reader;
+    protected long lineNumber;
+
+    private RecordReader(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    static RecordReader open(Path file) throws IOException {
+        return file.getFileName().toString().endsWith(".jsonl") ? new JsonLines(file) : new Csv(file);
+    }
+
+    /**
+     * Returns the next record, or null at the end of the file. Blank lines are skipped.
+     */
+    Map<String, String> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.trim().isEmpty()) {
+                return parse(line);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips {@code count} records and returns how many were actually there.
+     */
+    long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && next() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    protected abstract Map<String, String> parse(String line) throws IOException;
+
+    protected IOException malformed(String reason) {
+        return new IOException("Line " + lineNumber + ": " + reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class Csv extends RecordReader {
+        private final List<String> header;
+
+        Csv(Path file) throws IOException {
+            super(file);
+            String first = reader.readLine();
+            lineNumber++;
+            if (first == null) {
+                throw new IOException(file + " has no header row");
+            }
+            this.header = split(first);
+        }
+
+        @Override
+        protected Map<String, String> parse(String line) throws IOException {
+            List<String> values = split(line);
+            if (values.size() != header.size()) {
+                throw malformed("expected " + header.size() + " columns, got " + values.size());
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                record.put(header.get(i), values.get(i));
+            }
+            return record;
+        }
+
+        /**
+         * Splits on commas outside double quotes; a doubled quote inside quotes is a literal quote.
+         */
+        private static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (c == ',' && !quoted) {
+                    values.add(value.toString().trim());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString().trim());
+            return values;
+        }
+    }
+
+    /**
+     * Reads flat objects of string, number and boolean values, which is all the import formats use.
+     */
+    private static final class JsonLines extends RecordReader {
+        private String line;
+        private int pos;
+
+        JsonLines(Path file) throws IOException {
+            super(file);
+        }
+
+        @Override
+        protected Map<String, String> parse(String text) throws IOException {
+            line = text;
+            pos = 0;
+            Map<String, String> record = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+                return record;
+            }
+            while (true) {
+                String key = string();
+                expect(':');
+                record.put(key, value());
+                char c = peek();
+                pos++;
+                if (c == '}') {
+                    return record;
+                }
+                if (c != ',') {
+                    throw malformed("expected ',' or '}' at column " + pos);
+                }
+            }
+        }
+
+        private String value() throws IOException {
+            if (peek() == '"') {
+                return string();
+            }
+            int start = pos;
+            while (pos < line.length() && ",} \t".indexOf(line.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = line.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw malformed("expected a value at column " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String string() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < line.length()) {
+                char c = line.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\' && pos < line.length()) {
+                    char escaped = line.charAt(pos++);
+                    switch (escaped) {
+                        case 'n': value.append('\n'); break;
+                        case 't': value.append('\t'); break;
+                        case 'u':
+                            if (pos + 4 > line.length()) {
+                                throw malformed("truncated \\u escape");
+                            }
+                            value.append((char) Integer.parseInt(line.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default: value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            throw malformed("unterminated string");
+        }
+
+        private void expect(char expected) throws IOException {
+            if (peek() != expected) {
+                throw malformed("expected '" + expected + "' at column " + pos);
+            }
+            pos++;
+        }
+
+        private char peek() throws IOException {
+            while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= line.length()) {
+                throw malformed("unexpected end of line");
+            }
+            return line.charAt(pos);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.trains.loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks an index in {@code [0, n)}, either uniformly or from a Zipf distribution where index 0 is the hottest
+ * key. A skew of about 1 gives the usual "few popular trains" shape; 0 is uniform.
+ */
+final class KeyChooser {
+    private final int n;
+    private final double[] cumulative;
+
+    private KeyChooser(int n, double[] cumulative) {
+        this.n = n;
+        this.cumulative = cumulative;
+    }
+
+    static KeyChooser create(int n, double skew) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Need at least one key, got " + n);
+        }
+        if (skew <= 0) {
+            return new KeyChooser(n, null);
+        }
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return new KeyChooser(n, cumulative);
+    }
+
+    int next(Random random) {
+        if (cumulative == null) {
+            return random.nextInt(n);
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, n - 1);
+    }
+}
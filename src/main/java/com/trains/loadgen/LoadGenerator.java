@@ -0,0 +1,130 @@
+package com.trains.loadgen;
+
+import com.trains.backend.BackendConfig;
+import com.trains.backend.BackendException;
+import com.trains.backend.BackendSession;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load generator: requests are scheduled at a fixed rate whether or not earlier ones have finished,
+ * so a slow backend shows up as latency instead of as a quietly lower request rate.
+ *
+ * <p>Settings come from config.properties and can be overridden with {@code key=value} arguments, e.g.
+ * {@code loadgen_rate=2000 loadgen_duration_seconds=120 storage=memory}.
+ */
+public final class LoadGenerator {
+    private final BackendSession session;
+    private final BackendConfig config;
+    private final Workload workload;
+
+    public LoadGenerator(BackendSession session, BackendConfig config) {
+        this.session = session;
+        this.config = config;
+        this.workload = new Workload(session, config);
+    }
+
+    public static void main(String[] args) throws BackendException, IOException, InterruptedException {
+        BackendConfig config = BackendConfig.load();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            config = config.with(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        BackendSession session = new BackendSession(config.getString("contact_point", "127.0.0.1:9042"),
+                config.getString("keyspace", "Pociagi"), config.getString("consistency", "QUORUM"), config);
+
+        LoadReport report = new LoadGenerator(session, config).run();
+        report.print(System.out);
+        String prefix = config.getString("loadgen_report_prefix", "build/loadgen/report");
+        report.writeCsv(Paths.get(prefix + ".csv"));
+        report.writeJson(Paths.get(prefix + ".json"));
+        System.out.println("Report written to " + prefix + ".csv and " + prefix + ".json");
+        session.close();
+        System.exit(0);
+    }
+
+    /**
+     * Populates the data set, runs the warmup and the measured phase back to back, and waits up to
+     * {@code loadgen_drain_seconds} for the requests still in flight. Only requests due in the measured phase
+     * are reported.
+     */
+    public LoadReport run() throws InterruptedException {
+        double rate = Double.parseDouble(config.getString("loadgen_rate", "500"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(config.getLong("loadgen_warmup_seconds", 10));
+        long durationNanos = TimeUnit.SECONDS.toNanos(config.getLong("loadgen_duration_seconds", 60));
+        int maxOutstanding = config.getInt("loadgen_max_outstanding", 10_000);
+        Scenario.Mix mix = Scenario.parseMix(config.getString("loadgen_mix", "browse:40,book:30,reserve_confirm:20,scan_ticket:10"));
+        Random random = new Random(config.getLong("loadgen_seed", 42));
+
+        if (config.getBoolean("loadgen_populate", true)) {
+            workload.populate();
+        }
+
+        LoadReport report = new LoadReport(rate);
+        AtomicInteger outstanding = new AtomicInteger();
+        ExecutorService workers = session.newRequestExecutor("loadgen", config.getInt("loadgen_threads", 64));
+
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long begin = System.nanoTime();
+        long measureFrom = begin + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (long i = 0; ; i++) {
+            long due = begin + (long) (i * intervalNanos);
+            if (due - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = mix.next(random);
+            Supplier<CompletableFuture<Boolean>> request = workload.prepare(scenario, random);
+            LoadReport.ScenarioStats stats = due - measureFrom >= 0 ? report.stats(scenario) : null;
+            if (outstanding.get() >= maxOutstanding) {
+                if (stats != null) {
+                    stats.drop();
+                }
+                continue;
+            }
+            outstanding.incrementAndGet();
+            workers.execute(() -> send(request, due, stats, outstanding));
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getLong("loadgen_drain_seconds", 30));
+        while (outstanding.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            Thread.sleep(10);
+        }
+        workers.shutdownNow();
+        report.finish(durationNanos / 1e9);
+        return report;
+    }
+
+    private static void send(Supplier<CompletableFuture<Boolean>> request, long due, LoadReport.ScenarioStats stats, AtomicInteger outstanding) {
+        long sent = System.nanoTime();
+        CompletableFuture<Boolean> result;
+        try {
+            result = request.get();
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((accepted, error) -> {
+            outstanding.decrementAndGet();
+            if (stats != null) {
+                stats.record(due, sent, accepted, error);
+            }
+        });
+    }
+}
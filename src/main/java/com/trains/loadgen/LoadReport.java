@@ -0,0 +1,174 @@
+package com.trains.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-scenario results of the measured phase. Response time runs from the moment a request was due, so time
+ * spent queued behind a slow request is counted (coordinated-omission correction); service time runs from the
+ * moment it was actually sent.
+ */
+final class LoadReport {
+    private static final String[] COLUMNS = {"scenario", "count", "rejected", "errors", "dropped", "throughput_per_s",
+            "mean_us", "p50_us", "p90_us", "p99_us", "p999_us", "max_us", "service_p50_us", "service_p99_us"};
+
+    private final double targetRate;
+    private final Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+    private double measuredSeconds;
+
+    LoadReport(double targetRate) {
+        this.targetRate = targetRate;
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new ScenarioStats());
+        }
+    }
+
+    ScenarioStats stats(Scenario scenario) {
+        return stats.get(scenario);
+    }
+
+    void finish(double measuredSeconds) {
+        this.measuredSeconds = measuredSeconds;
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Target rate %.1f/s over %.1f s%n", targetRate, measuredSeconds);
+        out.printf(Locale.ROOT, "%-16s %9s %9s %7s %8s %10s %10s %10s %10s %10s %10s %12s%n",
+                "scenario", "count", "rejected", "errors", "dropped", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+        for (List<Object> row : rows()) {
+            if ((long) row.get(1) + (long) row.get(4) == 0) {
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-16s %9d %9d %7d %8d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f %12.2f%n",
+                    row.get(0), row.get(1), row.get(2), row.get(3), row.get(4), row.get(5),
+                    ms(row.get(7)), ms(row.get(8)), ms(row.get(9)), ms(row.get(10)), ms(row.get(11)), ms(row.get(13)));
+        }
+    }
+
+    void writeCsv(Path path) throws IOException {
+        try (PrintWriter out = writer(path)) {
+            out.println(String.join(",", COLUMNS));
+            for (List<Object> row : rows()) {
+                List<String> cells = new ArrayList<>();
+                for (Object cell : row) {
+                    cells.add(format(cell));
+                }
+                out.println(String.join(",", cells));
+            }
+        }
+    }
+
+    void writeJson(Path path) throws IOException {
+        try (PrintWriter out = writer(path)) {
+            out.printf(Locale.ROOT, "{\"target_rate_per_s\":%.3f,\"measured_seconds\":%.3f,\"scenarios\":[", targetRate, measuredSeconds);
+            List<List<Object>> rows = rows();
+            for (int r = 0; r < rows.size(); r++) {
+                List<Object> row = rows.get(r);
+                out.print(r == 0 ? "{" : ",{");
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    Object cell = row.get(c);
+                    out.print((c == 0 ? "" : ",") + "\"" + COLUMNS[c] + "\":" + (cell instanceof String ? "\"" + cell + "\"" : format(cell)));
+                }
+                out.print("}");
+            }
+            out.println("]}");
+        }
+    }
+
+    private List<List<Object>> rows() {
+        List<List<Object>> rows = new ArrayList<>();
+        for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+            ScenarioStats s = entry.getValue();
+            Histogram response = s.response();
+            Histogram service = s.service();
+            List<Object> row = new ArrayList<>();
+            row.add(entry.getKey().name());
+            row.add(response.getTotalCount());
+            row.add(s.rejected.sum());
+            row.add(s.errors.sum());
+            row.add(s.dropped.sum());
+            row.add(measuredSeconds > 0 ? response.getTotalCount() / measuredSeconds : 0.0);
+            row.add(response.getMean() / 1000.0);
+            row.add(micros(response, 50));
+            row.add(micros(response, 90));
+            row.add(micros(response, 99));
+            row.add(micros(response, 99.9));
+            row.add(response.getMaxValue() / 1000.0);
+            row.add(micros(service, 50));
+            row.add(micros(service, 99));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static double micros(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double ms(Object micros) {
+        return (double) micros / 1000.0;
+    }
+
+    private static String format(Object cell) {
+        return cell instanceof Double ? String.format(Locale.ROOT, "%.1f", (Double) cell) : String.valueOf(cell);
+    }
+
+    private static PrintWriter writer(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    static final class ScenarioStats {
+        private final Recorder response = new Recorder(3);
+        private final Recorder service = new Recorder(3);
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private Histogram responseTotal;
+        private Histogram serviceTotal;
+
+        void record(long dueNanos, long sentNanos, Boolean accepted, Throwable error) {
+            long now = System.nanoTime();
+            response.recordValue(now - dueNanos);
+            service.recordValue(now - sentNanos);
+            if (error != null) {
+                errors.increment();
+            } else if (!accepted) {
+                rejected.increment();
+            }
+        }
+
+        void drop() {
+            dropped.increment();
+        }
+
+        private synchronized Histogram response() {
+            if (responseTotal == null) {
+                responseTotal = response.getIntervalHistogram();
+            }
+            return responseTotal;
+        }
+
+        private synchronized Histogram service() {
+            if (serviceTotal == null) {
+                serviceTotal = service.getIntervalHistogram();
+            }
+            return serviceTotal;
+        }
+    }
+}
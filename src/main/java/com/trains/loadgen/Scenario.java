@@ -0,0 +1,66 @@
+package com.trains.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The user journeys the load generator mixes, one per request it schedules.
+ */
+enum Scenario {
+    /** Lists the available trains, as the CLI does before every booking. */
+    BROWSE,
+    /** Places an order for a few seats in one car. */
+    BOOK,
+    /** Holds seats, then turns the hold into an order. */
+    RESERVE_CONFIRM,
+    /** Reads the first page of a user's tickets around the trip date. */
+    SCAN_TICKET;
+
+    /**
+     * Parses a weighted mix such as {@code browse:40,book:30,reserve_confirm:20,scan_ticket:10}. Scenarios
+     * that are not listed are never scheduled.
+     */
+    static Mix parseMix(String spec) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in the mix, got '" + part + "'");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The scenario mix is empty");
+        }
+        return new Mix(weights);
+    }
+
+    static final class Mix {
+        private final Scenario[] scenarios;
+        private final int[] cumulative;
+
+        private Mix(Map<Scenario, Integer> weights) {
+            scenarios = weights.keySet().toArray(new Scenario[0]);
+            cumulative = new int[scenarios.length];
+            int sum = 0;
+            for (int i = 0; i < scenarios.length; i++) {
+                sum += weights.get(scenarios[i]);
+                cumulative[i] = sum;
+            }
+        }
+
+        Scenario next(Random random) {
+            int pick = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (pick < cumulative[i]) {
+                    return scenarios[i];
+                }
+            }
+            throw new IllegalStateException("Unreachable");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.trains.loadgen;
+
+import com.trains.backend.BackendConfig;
+import com.trains.backend.BackendSession;
+import com.trains.backend.OrderService;
+import com.trains.backend.ReservationService;
+import com.trains.backend.TrainService;
+import com.trains.backend.UserOrderService;
+import com.trains.backend.UserService;
+import com.trains.model.Order;
+import com.trains.model.Reservation;
+import com.trains.model.TrainKey;
+
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The trains and users the scenarios run against, and the requests themselves. Train and user ids are derived
+ * from their index, so repeated runs reuse the same data set.
+ */
+final class Workload {
+    private static final long USER_ID_MSB = 0x10adL;
+
+    private final TrainService trainService;
+    private final UserService userService;
+    private final OrderService orderService;
+    private final UserOrderService userOrderService;
+    private final ReservationService reservationService;
+
+    private final long tripDate;
+    private final int firstTrainId;
+    private final int trains;
+    private final int cars;
+    private final int seatsPerCar;
+    private final int users;
+    private final int maxSeatsPerRequest;
+    private final int browseLimit;
+    private final KeyChooser trainChooser;
+    private final KeyChooser userChooser;
+
+    Workload(BackendSession session, BackendConfig config) {
+        trainService = session.getTrainService();
+        userService = session.getUserService();
+        orderService = session.getOrderService();
+        userOrderService = session.getUserOrderService();
+        reservationService = session.getReservationService();
+        tripDate = Timestamp.valueOf(config.getString("loadgen_trip_date", "2024-12-30 08:00:00")).getTime();
+        firstTrainId = config.getInt("loadgen_first_train_id", 20_000);
+        trains = config.getInt("loadgen_trains", 100);
+        cars = config.getInt("loadgen_cars", 10);
+        seatsPerCar = config.getInt("loadgen_seats_per_car", 100_000);
+        users = config.getInt("loadgen_users", 10_000);
+        maxSeatsPerRequest = config.getInt("loadgen_max_seats_per_request", 4);
+        browseLimit = config.getInt("loadgen_browse_limit", 10);
+        trainChooser = KeyChooser.create(trains, Double.parseDouble(config.getString("loadgen_train_skew", "0.99")));
+        userChooser = KeyChooser.create(users, Double.parseDouble(config.getString("loadgen_user_skew", "0")));
+    }
+
+    void populate() {
+        for (int i = 0; i < trains; i++) {
+            trainService.upsertTrain(firstTrainId + i, tripDate, cars, seatsPerCar);
+        }
+        for (int i = 0; i < users; i++) {
+            userService.upsertUser(userId(i), "Load User " + i);
+        }
+    }
+
+    /**
+     * Draws the keys of one request on the calling thread, so a seeded run schedules the same requests; the
+     * returned supplier sends it. The request completes with {@code false} when the backend rejected it.
+     */
+    Supplier<CompletableFuture<Boolean>> prepare(Scenario scenario, Random random) {
+        int trainId = firstTrainId + trainChooser.next(random);
+        UUID userId = userId(userChooser.next(random));
+        int car = random.nextInt(cars) + 1;
+        int seats = random.nextInt(maxSeatsPerRequest) + 1;
+        switch (scenario) {
+            case BROWSE:
+                return () -> trainService.getAvailableTrainsAsync(browseLimit).thenApply(listed -> !listed.isEmpty());
+            case BOOK:
+                return () -> orderService.upsertOrderAsync(new Order(UUID.randomUUID(), trainId, tripDate, userId, car, seats));
+            case RESERVE_CONFIRM:
+                return () -> {
+                    UUID resId = UUID.randomUUID();
+                    return reservationService.reserveSeatsAsync(new Reservation(resId, trainId, tripDate, userId, car, seats), seatsPerCar)
+                            .thenCompose(held -> held == 1
+                                    ? reservationService.confirmReservationAsync(resId, UUID.randomUUID(), trainId, tripDate, userId, car, seats)
+                                    : CompletableFuture.completedFuture(0))
+                            .thenApply(confirmed -> confirmed == 1);
+                };
+            case SCAN_TICKET:
+                return () -> userOrderService.getOrdersForUserAsync(userId, tripDate - TrainKey.DAY_MILLIS, tripDate + TrainKey.DAY_MILLIS, 10, null)
+                        .thenApply(page -> true);
+            default:
+                throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    private static UUID userId(int index) {
+        return new UUID(USER_ID_MSB, index);
+    }
+}
@@ -0,0 +1,56 @@
+package com.trains.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The number of seats to order in each car of a train, in the order the cars were chosen.
+ */
+public final class AllocationPlan {
+    private final TrainKey trainKey;
+    private final Map<Integer, Integer> seatsByCar;
+
+    public AllocationPlan(TrainKey trainKey, Map<Integer, Integer> seatsByCar) {
+        this.trainKey = trainKey;
+        this.seatsByCar = Collections.unmodifiableMap(new LinkedHashMap<>(seatsByCar));
+    }
+
+    public TrainKey getTrainKey() {
+        return trainKey;
+    }
+
+    public Map<Integer, Integer> getSeatsByCar() {
+        return seatsByCar;
+    }
+
+    public int getTotalSeats() {
+        return seatsByCar.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getCarCount() {
+        return seatsByCar.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AllocationPlan)) {
+            return false;
+        }
+        AllocationPlan other = (AllocationPlan) o;
+        return trainKey.equals(other.trainKey) && seatsByCar.equals(other.seatsByCar);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * trainKey.hashCode() + seatsByCar.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AllocationPlan{" + trainKey + ", seatsByCar=" + seatsByCar + "}";
+    }
+}
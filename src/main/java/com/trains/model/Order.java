@@ -0,0 +1,93 @@
+package com.trains.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable order row; the same shape is stored in orders and orders_per_user.
+ */
+public final class Order {
+    private final UUID orderId;
+    private final TrainKey trainKey;
+    private final UUID userId;
+    private final int car;
+    private final int seatsAmount;
+
+    public Order(UUID orderId, TrainKey trainKey, UUID userId, int car, int seatsAmount) {
+        this.orderId = orderId;
+        this.trainKey = trainKey;
+        this.userId = userId;
+        this.car = car;
+        this.seatsAmount = seatsAmount;
+    }
+
+    public Order(UUID orderId, int trainId, long tripDate, UUID userId, int car, int seatsAmount) {
+        this(orderId, new TrainKey(trainId, tripDate), userId, car, seatsAmount);
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public TrainKey getTrainKey() {
+        return trainKey;
+    }
+
+    public int getTrainId() {
+        return trainKey.getTrainId();
+    }
+
+    public long getTripDate() {
+        return trainKey.getTripDate();
+    }
+
+    /**
+     * Partition of this order in the user's order history: whole UTC months since the epoch of the trip date,
+     * so a frequent traveller's history is split into bounded partitions.
+     */
+    public int getHistoryMonth() {
+        return historyMonth(getTripDate());
+    }
+
+    public static int historyMonth(long millis) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC);
+        return (time.getYear() - 1970) * 12 + time.getMonthValue() - 1;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public int getCar() {
+        return car;
+    }
+
+    public int getSeatsAmount() {
+        return seatsAmount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Order)) {
+            return false;
+        }
+        Order other = (Order) o;
+        return orderId.equals(other.orderId) && trainKey.equals(other.trainKey) && userId.equals(other.userId)
+                && car == other.car && seatsAmount == other.seatsAmount;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * orderId.hashCode() + car;
+    }
+
+    @Override
+    public String toString() {
+        return "Order{" + orderId + ", " + trainKey + ", user=" + userId + ", car=" + car + ", seats=" + seatsAmount + "}";
+    }
+}
@@ -0,0 +1,34 @@
+package com.trains.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a paged query and the opaque token that continues it, {@code null} after the last page.
+ */
+public final class Page<T> {
+    private final List<T> items;
+    private final String nextToken;
+
+    public Page(List<T> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" + items.size() + " items, next=" + nextToken + "}";
+    }
+}
@@ -0,0 +1,96 @@
+package com.trains.model;
+
+import java.util.UUID;
+
+/**
+ * Immutable seat hold from the reservation_holds table. A hold stops counting at {@link #getExpiresAt()};
+ * 0 means it has not been given an expiry yet.
+ */
+public final class Reservation {
+    private final UUID resId;
+    private final TrainKey trainKey;
+    private final UUID userId;
+    private final int car;
+    private final int seatsAmount;
+    private final long expiresAt;
+
+    public Reservation(UUID resId, TrainKey trainKey, UUID userId, int car, int seatsAmount, long expiresAt) {
+        this.resId = resId;
+        this.trainKey = trainKey;
+        this.userId = userId;
+        this.car = car;
+        this.seatsAmount = seatsAmount;
+        this.expiresAt = expiresAt;
+    }
+
+    public Reservation(UUID resId, TrainKey trainKey, UUID userId, int car, int seatsAmount) {
+        this(resId, trainKey, userId, car, seatsAmount, 0);
+    }
+
+    public Reservation(UUID resId, int trainId, long tripDate, UUID userId, int car, int seatsAmount) {
+        this(resId, new TrainKey(trainId, tripDate), userId, car, seatsAmount);
+    }
+
+    public UUID getResId() {
+        return resId;
+    }
+
+    public TrainKey getTrainKey() {
+        return trainKey;
+    }
+
+    public int getTrainId() {
+        return trainKey.getTrainId();
+    }
+
+    public long getTripDate() {
+        return trainKey.getTripDate();
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public int getCar() {
+        return car;
+    }
+
+    public int getSeatsAmount() {
+        return seatsAmount;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Reservation withExpiresAt(long expiresAt) {
+        return new Reservation(resId, trainKey, userId, car, seatsAmount, expiresAt);
+    }
+
+    public Reservation withSeatsAmount(int seatsAmount) {
+        return new Reservation(resId, trainKey, userId, car, seatsAmount, expiresAt);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Reservation)) {
+            return false;
+        }
+        Reservation other = (Reservation) o;
+        return resId.equals(other.resId) && trainKey.equals(other.trainKey) && userId.equals(other.userId)
+                && car == other.car && seatsAmount == other.seatsAmount && expiresAt == other.expiresAt;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * resId.hashCode() + car;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" + resId + ", " + trainKey + ", user=" + userId + ", car=" + car + ", seats=" + seatsAmount + "}";
+    }
+}
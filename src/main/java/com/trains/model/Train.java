@@ -0,0 +1,70 @@
+package com.trains.model;
+
+/**
+ * Immutable train definition as stored in the trains table.
+ */
+public final class Train {
+    private final TrainKey key;
+    private final int cars;
+    private final int seatsPerCar;
+
+    public Train(TrainKey key, int cars, int seatsPerCar) {
+        this.key = key;
+        this.cars = cars;
+        this.seatsPerCar = seatsPerCar;
+    }
+
+    public Train(int trainId, long tripDate, int cars, int seatsPerCar) {
+        this(new TrainKey(trainId, tripDate), cars, seatsPerCar);
+    }
+
+    public TrainKey getKey() {
+        return key;
+    }
+
+    public int getTrainId() {
+        return key.getTrainId();
+    }
+
+    public long getTripDate() {
+        return key.getTripDate();
+    }
+
+    public int getCars() {
+        return cars;
+    }
+
+    public int getSeatsPerCar() {
+        return seatsPerCar;
+    }
+
+    public int getTotalSeats() {
+        return cars * seatsPerCar;
+    }
+
+    public boolean isValidCar(int car) {
+        return car > 0 && car <= cars;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Train)) {
+            return false;
+        }
+        Train other = (Train) o;
+        return key.equals(other.key) && cars == other.cars && seatsPerCar == other.seatsPerCar;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * key.hashCode() + cars) + seatsPerCar;
+    }
+
+    @Override
+    public String toString() {
+        return "Train{" + key + ", cars=" + cars + ", seatsPerCar=" + seatsPerCar + "}";
+    }
+}
@@ -0,0 +1,27 @@
+package com.trains.model;
+
+/**
+ * A train together with the number of seats that can still be ordered on it.
+ */
+public final class TrainAvailability {
+    private final Train train;
+    private final int availableSeats;
+
+    public TrainAvailability(Train train, int availableSeats) {
+        this.train = train;
+        this.availableSeats = availableSeats;
+    }
+
+    public Train getTrain() {
+        return train;
+    }
+
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    @Override
+    public String toString() {
+        return "TrainAvailability{" + train + ", availableSeats=" + availableSeats + "}";
+    }
+}
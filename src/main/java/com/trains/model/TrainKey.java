@@ -0,0 +1,67 @@
+package com.trains.model;
+
+import java.util.Date;
+
+/**
+ * Partition key of a train run: train number and departure time in epoch milliseconds.
+ */
+public final class TrainKey {
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final int trainId;
+    private final long tripDate;
+
+    public TrainKey(int trainId, long tripDate) {
+        this.trainId = trainId;
+        this.tripDate = tripDate;
+    }
+
+    public static TrainKey of(int trainId, Date tripDate) {
+        return new TrainKey(trainId, tripDate.getTime());
+    }
+
+    public int getTrainId() {
+        return trainId;
+    }
+
+    public long getTripDate() {
+        return tripDate;
+    }
+
+    /**
+     * Timetable partition of this departure: whole UTC days since the epoch.
+     */
+    public int getTimetableDay() {
+        return timetableDay(tripDate);
+    }
+
+    public static int timetableDay(long millis) {
+        return (int) Math.floorDiv(millis, DAY_MILLIS);
+    }
+
+    public Date getTripDateAsDate() {
+        return new Date(tripDate);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TrainKey)) {
+            return false;
+        }
+        TrainKey other = (TrainKey) o;
+        return trainId == other.trainId && tripDate == other.tripDate;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * trainId + Long.hashCode(tripDate);
+    }
+
+    @Override
+    public String toString() {
+        return trainId + "@" + tripDate;
+    }
+}
@@ -0,0 +1,69 @@
+package com.trains;
+
+import com.trains.backend.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveConsistencyTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static ReservationService reservationService;
+    private static OccupancyService occupancyService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        BackendConfig config = BackendConfig.load()
+                .with("adaptive_consistency_enabled", "true")
+                .with("adaptive_consistency_margin_percent", "20")
+                .with("booking_coordinator_enabled", "false");
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        reservationService = session.getReservationService();
+        occupancyService = session.getOccupancyService();
+    }
+
+    @Test
+    public void testOrderChecksEscalateNearCapacity() {
+        int trainId = 8001;
+        long tripDate = Timestamp.valueOf("2024-12-28 20:00:00").getTime();
+        trainService.upsertTrain(trainId, tripDate, 1, 10);
+        occupancyService.rebuildOccupancy(trainId, tripDate);
+        assertEquals(0, orderService.getTakenSeatsByCar(trainId, tripDate, 1));
+        long relaxedBefore = occupancyService.getRelaxedChecks();
+        long escalatedBefore = occupancyService.getEscalatedChecks();
+
+        int accepted = 0;
+        for (int i = 0; i < 11; i++) {
+            accepted += orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 1) ? 1 : 0;
+        }
+
+        // Two seats are the margin: the first eight orders leave at least two free, the last three do not.
+        assertEquals(10, accepted);
+        assertEquals(8, occupancyService.getRelaxedChecks() - relaxedBefore);
+        assertEquals(3, occupancyService.getEscalatedChecks() - escalatedBefore);
+    }
+
+    @Test
+    public void testHoldChecksCountHeldSeats() {
+        int trainId = 8002;
+        long tripDate = Timestamp.valueOf("2024-12-28 20:30:00").getTime();
+        trainService.upsertTrain(trainId, tripDate, 2, 10);
+        UUID userId = UUID.randomUUID();
+        long relaxedBefore = occupancyService.getRelaxedChecks();
+        long escalatedBefore = occupancyService.getEscalatedChecks();
+
+        assertEquals(1, reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 2, 5, 10));
+        assertEquals(1, reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 2, 4, 10));
+        assertEquals(0, reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 2, 2, 10));
+
+        assertEquals(1, occupancyService.getRelaxedChecks() - relaxedBefore);
+        assertEquals(2, occupancyService.getEscalatedChecks() - escalatedBefore);
+    }
+}
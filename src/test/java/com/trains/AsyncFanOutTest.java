@@ -0,0 +1,64 @@
+package com.trains;
+
+import com.trains.backend.AsyncFanOut;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncFanOutTest {
+
+    @Test
+    public void testResultsKeepInputOrderAndInFlightIsBounded() {
+        List<Integer> inputs = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        List<Map.Entry<Integer, CompletableFuture<Integer>>> pending = new ArrayList<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        CompletableFuture<List<Integer>> result = AsyncFanOut.mapOrdered(inputs, 4, i -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            synchronized (pending) {
+                pending.add(new AbstractMap.SimpleEntry<>(i, future));
+            }
+            return future;
+        });
+
+        // Complete in reverse order of submission to make sure ordering comes from the index, not completion.
+        while (!result.isDone()) {
+            List<Map.Entry<Integer, CompletableFuture<Integer>>> batch;
+            synchronized (pending) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                inFlight.decrementAndGet();
+                batch.get(i).getValue().complete(batch.get(i).getKey() * 2);
+            }
+        }
+
+        List<Integer> values = result.join();
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(i * 2, values.get(i).intValue());
+        }
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testCompletedTasksDoNotGrowTheStack() {
+        List<Integer> inputs = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+        List<Integer> result = AsyncFanOut.mapOrdered(inputs, 1, i -> CompletableFuture.completedFuture(i * 2)).join();
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(i * 2, result.get(i).intValue());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class AsyncOrderServiceTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static UserService userService;
+    private static TrainService trainService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        orderService = session.getOrderService();
+        userService = session.getUserService();
+        trainService = session.getTrainService();
+    }
+
+    @Test
+    public void testConcurrentAsyncOrders() {
+        UUID userId = UUID.randomUUID();
+        int trainId = 7001;
+        long tripDate = Timestamp.valueOf("2024-12-28 09:00:00").getTime();
+        int numberOfOrders = 500;
+
+        userService.upsertUser(userId, "Async Test User");
+        trainService.upsertTrain(trainId, tripDate, 10, 100);
+        int before = orderService.getTakenSeats(trainId, tripDate);
+
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfOrders; i++) {
+            futures.add(orderService.upsertOrderAsync(new Order(UUID.randomUUID(), trainId, tripDate, userId, i % 10 + 1, 1)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        long duration = System.currentTimeMillis() - startTime;
+
+        System.out.println("Operations per second: " + numberOfOrders / (duration / 1000.0));
+        int placed = (int) futures.stream().filter(CompletableFuture::join).count();
+        assertEquals(before + placed, orderService.getTakenSeatsAsync(trainId, tripDate).join().intValue());
+    }
+
+    @Test
+    public void testOrderForUnknownTrainIsRejected() {
+        long tripDate = Timestamp.valueOf("1999-01-01 00:00:00").getTime();
+        assertFalse(orderService.upsertOrderAsync(new Order(UUID.randomUUID(), -1, tripDate, UUID.randomUUID(), 1, 1)).join());
+    }
+}
@@ -0,0 +1,70 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.backend.metrics.BackendMetrics;
+import com.trains.backend.metrics.LatencySnapshot;
+import com.trains.backend.metrics.OperationTimer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BackendMetricsTest {
+    private static BackendSession session;
+    private static BackendMetrics metrics;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        metrics = session.getMetrics();
+    }
+
+    @Test
+    public void testOperationsAreTimed() {
+        int trainId = 7401;
+        long tripDate = Timestamp.valueOf("2024-12-28 17:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        session.getTrainService().upsertTrain(trainId, tripDate, 2, 10);
+        OperationTimer upsertOrder = metrics.operation("upsertOrder");
+        OperationTimer reserveSeats = metrics.operation("reserveSeats");
+        long ordersBefore = upsertOrder.getCount();
+        long reservationsBefore = reserveSeats.getCount();
+
+        session.getOrderService().upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 2);
+        session.getReservationService().reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 2, 3, 10);
+
+        assertEquals(ordersBefore + 1, upsertOrder.getCount());
+        assertEquals(reservationsBefore + 1, reserveSeats.getCount());
+        assertEquals(0, upsertOrder.getInFlight());
+        assertTrue(upsertOrder.getMaxMicros() > 0);
+    }
+
+    @Test
+    public void testFailuresAreCounted() {
+        OperationTimer timer = metrics.operation("failing");
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("boom"));
+        timer.timeAsync(() -> failed);
+
+        LatencySnapshot snapshot = timer.snapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(1, timer.getErrors());
+        assertEquals(0, timer.getInFlight());
+    }
+
+    @Test
+    public void testTimersAreRegisteredOverJmx() throws Exception {
+        metrics.operation("getAvailableTrains");
+        assertFalse(ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName("com.trains:type=Operation,name=\"getAvailableTrains\",*"), null).isEmpty());
+    }
+}
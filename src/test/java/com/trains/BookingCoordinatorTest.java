@@ -0,0 +1,107 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookingCoordinatorTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static OccupancyService occupancyService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        occupancyService = session.getOccupancyService();
+    }
+
+    @Test
+    public void testConcurrentOrdersDoNotOversell() {
+        long tripDate = Timestamp.valueOf("2024-12-28 17:00:00").getTime();
+        int[] trainIds = {7701, 7702, 7703};
+        for (int trainId : trainIds) {
+            trainService.upsertTrain(trainId, tripDate, 2, 25);
+            occupancyService.rebuildOccupancy(trainId, tripDate);
+        }
+        int[] before = new int[trainIds.length];
+        for (int i = 0; i < trainIds.length; i++) {
+            before[i] = orderService.getTakenSeatsByCar(trainIds[i], tripDate, 1);
+        }
+
+        ExecutorService clients = session.newRequestExecutor("booking-test", 32);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int trainId = trainIds[i % trainIds.length];
+            Order order = new Order(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 1);
+            results.add(CompletableFuture.supplyAsync(() -> orderService.upsertOrderAsync(order), clients).thenCompose(result -> result));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+        clients.shutdown();
+
+        for (int i = 0; i < trainIds.length; i++) {
+            int accepted = 0;
+            for (int j = i; j < results.size(); j += trainIds.length) {
+                accepted += results.get(j).join() ? 1 : 0;
+            }
+            assertEquals(25 - before[i], accepted);
+            assertEquals(25, orderService.getTakenSeatsByCar(trainIds[i], tripDate, 1));
+            occupancyService.rebuildOccupancy(trainIds[i], tripDate);
+            assertEquals(25, orderService.getTakenSeatsByCar(trainIds[i], tripDate, 1));
+        }
+    }
+
+    @Test
+    public void testFullGroupIsCommittedBeforeTheWindowCloses() throws Exception {
+        BackendConfig config = BackendConfig.load().with("group_commit_window_micros", "30000000").with("booking_max_group_size", "4");
+        BackendSession grouped = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        long tripDate = Timestamp.valueOf("2024-12-28 17:15:00").getTime();
+        grouped.getTrainService().upsertTrain(7705, tripDate, 2, 25);
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(grouped.getOrderService().upsertOrderAsync(new Order(UUID.randomUUID(), 7705, tripDate, UUID.randomUUID(), 2, 1)));
+        }
+        // Four queued orders fill the group, so they must not wait for the 30 s window.
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<Boolean> result : results) {
+            assertEquals(true, result.join());
+        }
+    }
+
+    @Test
+    public void testUnknownTrainAndCarAreRejected() {
+        long tripDate = Timestamp.valueOf("2024-12-28 17:30:00").getTime();
+        trainService.upsertTrain(7704, tripDate, 2, 25);
+        assertEquals(false, orderService.upsertOrderAsync(new Order(UUID.randomUUID(), 7704, tripDate, UUID.randomUUID(), 3, 1)).join());
+        assertEquals(false, orderService.upsertOrderAsync(new Order(UUID.randomUUID(), -7704, tripDate, UUID.randomUUID(), 1, 1)).join());
+    }
+
+    @Test
+    public void testOrdersOfAnotherInstanceAreSeenByTheNextGroup() throws Exception {
+        BackendSession other = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        long tripDate = Timestamp.valueOf("2024-12-28 17:45:00").getTime();
+        trainService.upsertTrain(7706, tripDate, 2, 10);
+        occupancyService.rebuildOccupancy(7706, tripDate);
+
+        assertEquals(true, orderService.upsertOrder(UUID.randomUUID(), 7706, tripDate, UUID.randomUUID(), 1, 1));
+        assertEquals(true, other.getOrderService().upsertOrder(UUID.randomUUID(), 7706, tripDate, UUID.randomUUID(), 1, 8));
+        // This instance booked the train just before, but must not book against what it saw then.
+        assertEquals(false, orderService.upsertOrder(UUID.randomUUID(), 7706, tripDate, UUID.randomUUID(), 1, 2));
+        assertEquals(9, orderService.getTakenSeatsByCar(7706, tripDate, 1));
+        other.close();
+    }
+}
@@ -0,0 +1,64 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.bulk.BulkImporter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class BulkImportTest {
+    private static BackendSession session;
+    private static BackendConfig config;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        config = BackendConfig.load();
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+    }
+
+    @Test
+    public void testImportAndResume() throws Exception {
+        Path dir = Files.createTempDirectory("bulk-import");
+        int trainId = 7401;
+        long tripDate = Timestamp.valueOf("2024-12-29 08:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        Files.write(dir.resolve("trains.csv"), List.of("train_id,trip_date,cars,seats_per_car",
+                trainId + ",2024-12-29 08:00:00,5,40"));
+        Files.write(dir.resolve("users.jsonl"), List.of("{\"user_id\": \"" + userId + "\", \"name\": \"Import, \\\"Test\\\"\"}"));
+        List<String> orders = new ArrayList<>();
+        orders.add("order_id,train_id,trip_date,user_id,car,seats");
+        for (int i = 0; i < 10; i++) {
+            orders.add(UUID.randomUUID() + "," + trainId + "," + tripDate + "," + userId + "," + (i % 5 + 1) + ",2");
+        }
+        Files.write(dir.resolve("orders.csv"), orders);
+
+        BackendConfig importConfig = config.with("import_checkpoint", dir.resolve("checkpoint.properties").toString())
+                .with("import_chunk_rows", "3").with("import_batch_rows", "2");
+        BulkImporter importer = new BulkImporter(session, importConfig);
+        assertEquals(1, importer.importTrains(dir.resolve("trains.csv")).getRows());
+        assertEquals(1, importer.importUsers(dir.resolve("users.jsonl")).getRows());
+        // The first run only sees the first chunk, as if it had stopped there.
+        Files.write(dir.resolve("orders.csv"), orders.subList(0, 4));
+        assertEquals(3, importer.importOrders(dir.resolve("orders.csv")).getRows());
+        Files.write(dir.resolve("orders.csv"), orders);
+
+        BulkImporter.FileResult resumed = importer.importOrders(dir.resolve("orders.csv"));
+        assertEquals(3, resumed.getSkipped());
+        assertEquals(7, resumed.getRows());
+        assertNotNull(session.getTrainService().getTrainAsync(trainId, tripDate).join());
+        assertEquals(20, session.getOrderService().getTakenSeats(trainId, tripDate));
+
+        BulkImporter.FileResult again = importer.importOrders(dir.resolve("orders.csv"));
+        assertEquals(10, again.getSkipped());
+        assertEquals(0, again.getRows());
+    }
+}
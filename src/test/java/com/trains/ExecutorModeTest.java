@@ -0,0 +1,69 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Reservation;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecutorModeTest {
+
+    @Test
+    public void testVirtualModeRunsTenThousandBlockedTasks() throws Exception {
+        int tasks = 10_000;
+        ExecutorService executor = ExecutorMode.VIRTUAL.newExecutor("test", 1);
+        CountDownLatch allStarted = new CountDownLatch(tasks);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            results.add(executor.submit(() -> {
+                allStarted.countDown();
+                allStarted.await();
+                return Thread.currentThread().isVirtual();
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPlatformModeUsesNamedPoolThreads() throws Exception {
+        ExecutorService executor = ExecutorMode.PLATFORM.newExecutor("pool", 2);
+        assertFalse(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+        assertTrue(executor.submit(() -> Thread.currentThread().getName()).get().startsWith("pool-"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReservationsOnTheSessionExecutor() throws Exception {
+        BackendSession session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM",
+                BackendConfig.load().with("executor_mode", "VIRTUAL"));
+        ReservationService reservationService = session.getReservationService();
+        int trainId = 7501;
+        long tripDate = Timestamp.valueOf("2024-12-28 18:00:00").getTime();
+        session.getTrainService().upsertTrain(trainId, tripDate, 1, 100);
+        int heldBefore = reservationService.getReservedSeats(trainId, tripDate);
+
+        List<CompletableFuture<Integer>> holds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            holds.add(reservationService.reserveSeatsAsync(new Reservation(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 1), 100));
+        }
+        CompletableFuture.allOf(holds.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(ExecutorMode.VIRTUAL, session.getExecutorMode());
+        assertEquals(heldBefore + 50, reservationService.getReservedSeats(trainId, tripDate));
+    }
+}
@@ -0,0 +1,118 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class InMemoryStorageTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static ReservationService reservationService;
+    private static OccupancyService occupancyService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("unused", "unused", "ONE", BackendConfig.defaults().with("storage", "memory"));
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        reservationService = session.getReservationService();
+        occupancyService = session.getOccupancyService();
+    }
+
+    @Test
+    public void testServicesRunWithoutCluster() {
+        assertNull(session.getSession());
+        int trainId = 7401;
+        long tripDate = Timestamp.valueOf("2024-12-28 10:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 2, 5);
+        int orderedBefore = orderService.getTakenSeats(trainId, tripDate);
+
+        orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 5);
+        assertFalse(orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 1));
+        UUID resId = UUID.randomUUID();
+        reservationService.reserveSeats(resId, trainId, tripDate, userId, 2, 3, 5);
+        reservationService.confirmReservation(resId, UUID.randomUUID(), trainId, tripDate, userId, 2, 3, orderService);
+
+        assertEquals(orderedBefore + 8, orderService.getTakenSeats(trainId, tripDate));
+        assertEquals(0, reservationService.getReservedSeats(trainId, tripDate));
+        List<Order> orders = session.getUserOrderService().selectOrders(trainId, tripDate, userId);
+        assertEquals(2, orders.size());
+
+        occupancyService.rebuildOccupancy(trainId, tripDate);
+        assertEquals(orderedBefore + 8, orderService.getTakenSeats(trainId, tripDate));
+    }
+
+    @Test
+    public void testClearingOneTableKeepsTheOthersCounters() {
+        // Clears the shared memory storage; the other test only compares counters before and after its writes.
+        int trainId = 7402;
+        long tripDate = Timestamp.valueOf("2024-12-28 11:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 2, 5);
+        orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 4);
+        reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 2, 3, 5);
+
+        reservationService.deleteAllReservations();
+        assertEquals(4, orderService.getTakenSeats(trainId, tripDate));
+        assertEquals(0, reservationService.getReservedSeats(trainId, tripDate));
+
+        reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 2, 3, 5);
+        orderService.deleteAllOrders();
+        assertEquals(0, orderService.getTakenSeats(trainId, tripDate));
+        assertEquals(3, reservationService.getReservedSeats(trainId, tripDate));
+    }
+
+    @Test
+    public void testRejectedConfirmationKeepsTheHold() {
+        int trainId = 7403;
+        long tripDate = Timestamp.valueOf("2024-12-28 12:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 2, 10);
+        UUID resId = UUID.randomUUID();
+        assertEquals(1, reservationService.reserveSeats(resId, trainId, tripDate, userId, 1, 4, 10));
+        // Orders do not count held seats, so this one leaves too few for the hold to be confirmed.
+        orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 8);
+
+        assertEquals(0, reservationService.confirmReservation(resId, UUID.randomUUID(), trainId, tripDate, userId, 1, 4, orderService));
+        assertNotNull(reservationService.getReservation(trainId, tripDate, 1, resId));
+        assertEquals(4, reservationService.getSumReservedSeatsByCar(trainId, tripDate, 1));
+        assertEquals(8, orderService.getTakenSeatsByCar(trainId, tripDate, 1));
+    }
+
+    @Test
+    public void testConcurrentConfirmationsWriteOneOrder() {
+        int trainId = 7404;
+        long tripDate = Timestamp.valueOf("2024-12-28 13:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 2, 10);
+        UUID resId = UUID.randomUUID();
+        assertEquals(1, reservationService.reserveSeats(resId, trainId, tripDate, userId, 1, 3, 10));
+
+        List<CompletableFuture<Integer>> confirmations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            confirmations.add(reservationService.confirmReservationAsync(resId, UUID.randomUUID(), trainId, tripDate, userId, 1, 3));
+        }
+        int confirmed = 0;
+        for (CompletableFuture<Integer> confirmation : confirmations) {
+            confirmed += confirmation.join();
+        }
+
+        assertEquals(1, confirmed);
+        assertEquals(3, orderService.getTakenSeatsByCar(trainId, tripDate, 1));
+        assertEquals(0, reservationService.getSumReservedSeatsByCar(trainId, tripDate, 1));
+    }
+}
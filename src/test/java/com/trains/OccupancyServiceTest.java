@@ -0,0 +1,53 @@
+package com.trains;
+
+import com.trains.backend.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OccupancyServiceTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static ReservationService reservationService;
+    private static OccupancyService occupancyService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        reservationService = session.getReservationService();
+        occupancyService = session.getOccupancyService();
+    }
+
+    @Test
+    public void testCountersFollowOrdersAndReservations() {
+        int trainId = 7101;
+        long tripDate = Timestamp.valueOf("2024-12-28 09:30:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 3, 20);
+        occupancyService.rebuildOccupancy(trainId, tripDate);
+        int orderedBefore = orderService.getTakenSeats(trainId, tripDate);
+        int heldBefore = reservationService.getReservedSeats(trainId, tripDate);
+
+        orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 2);
+        orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 2, 3);
+        UUID resId = UUID.randomUUID();
+        reservationService.reserveSeats(resId, trainId, tripDate, userId, 3, 4, 20);
+
+        assertEquals(orderedBefore + 5, orderService.getTakenSeats(trainId, tripDate));
+        assertEquals(heldBefore + 4, reservationService.getReservedSeats(trainId, tripDate));
+
+        reservationService.confirmReservation(resId, UUID.randomUUID(), trainId, tripDate, userId, 3, 4, orderService);
+        assertEquals(orderedBefore + 9, orderService.getTakenSeats(trainId, tripDate));
+        assertEquals(heldBefore, reservationService.getReservedSeats(trainId, tripDate));
+
+        occupancyService.rebuildOccupancy(trainId, tripDate);
+        assertEquals(orderedBefore + 9, orderService.getTakenSeats(trainId, tripDate));
+    }
+}
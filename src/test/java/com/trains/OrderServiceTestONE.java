@@ -1,6 +1,7 @@
 package com.trains;
 
 import com.trains.backend.*;
+import com.trains.model.Train;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -10,7 +11,6 @@ import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
@@ -23,7 +23,7 @@ public class OrderServiceTestONE {
     private static UserService userService;
     private static TrainService trainService;
     private static ReservationService reservationService;
-    private static List<String> trains = new ArrayList<>();
+    private static List<Train> trains = new ArrayList<>();
     private static List<UUID> users = new ArrayList<>();
 
     @BeforeAll
@@ -38,15 +38,15 @@ public class OrderServiceTestONE {
         UUID userId = UUID.randomUUID();
         users.add(userId);
         userService.upsertUser(userId, "Test User");
-        trains.add(trainService.upsertTrain(4091, Timestamp.valueOf("2024-12-28 11:00:00"), 5, 50));
-        trains.add(trainService.upsertTrain(4092, Timestamp.valueOf("2024-12-28 12:00:00"), 4, 60));
-        trains.add(trainService.upsertTrain(4093, Timestamp.valueOf("2024-12-28 13:00:00"), 6, 40));
+        trains.add(trainService.upsertTrain(4091, Timestamp.valueOf("2024-12-28 11:00:00").getTime(), 5, 50));
+        trains.add(trainService.upsertTrain(4092, Timestamp.valueOf("2024-12-28 12:00:00").getTime(), 4, 60));
+        trains.add(trainService.upsertTrain(4093, Timestamp.valueOf("2024-12-28 13:00:00").getTime(), 6, 40));
     }
 
     @Test
     public void benchmarkInsertOrdersWithMultipleThreads() {
         int numberOfThreads = 1000;
-        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        ExecutorService executorService = session.newRequestExecutor("harness", numberOfThreads);
 
         long startTime = System.currentTimeMillis();
 
@@ -59,7 +59,7 @@ public class OrderServiceTestONE {
                     } catch (InterruptedException e) {
                         e.printStackTrace();
                     }
-                    String train = trains.get(new Random().nextInt(trains.size()));
+                    Train train = trains.get(new Random().nextInt(trains.size()));
                     addTicket(train, users.get(0), 1);
                 });
             });
@@ -77,6 +77,10 @@ public class OrderServiceTestONE {
 
         System.out.println("Benchmark completed in: " + duration + " ms");
 
+        if (session.getSession() == null) {
+            // In-memory storage, nothing to query
+            return;
+        }
         // Add the select statement here
         String query = "SELECT train_id, trip_date, car, SUM(seats_amount) FROM orders GROUP BY train_id, trip_date, car";
         final int[] previousTrainId = {-1};
@@ -91,7 +95,7 @@ public class OrderServiceTestONE {
         });
     }
 
-    private void addTicket(String train, UUID userId, int numberOfTickets) throws BackendException {
+    private void addTicket(Train train, UUID userId, int numberOfTickets) throws BackendException {
         UUID orderId = UUID.randomUUID();
 
         String ticketInfo = reserveTickets(orderId, train, userId, numberOfTickets);
@@ -104,12 +108,11 @@ public class OrderServiceTestONE {
         }
     }
 
-    private String reserveTickets(UUID orderId, String train, UUID userId, int numberOfTickets) {
-        String[] trainDetails = train.split(", ");
-        int trainId = Integer.parseInt(trainDetails[0].split(": ")[1]);
-        int cars = Integer.parseInt(trainDetails[2].split(": ")[1]);
-        int carCapacity = Integer.parseInt(trainDetails[3].split(": ")[1]);
-        String departureTime = trainDetails[1].split(": ")[1];
+    private String reserveTickets(UUID orderId, Train train, UUID userId, int numberOfTickets) {
+        int trainId = train.getTrainId();
+        int cars = train.getCars();
+        int carCapacity = train.getSeatsPerCar();
+        long departureTime = train.getTripDate();
         int remainingTickets = numberOfTickets;
         StringBuilder ticketInfo = new StringBuilder();
 
@@ -126,22 +129,23 @@ public class OrderServiceTestONE {
         UUID resId = UUID.randomUUID();
         Random random = new Random();
         while (remainingTickets > 0) {
-            reservedSeats = orderService.getTakenSeats(trainId, departureTime) + reservationService.getReservedSeats(trainId, departureTime);
+            SeatOccupancy[] occupancy = orderService.getOccupancyService().getOccupancyPerCarAsync(trainId, departureTime, cars).join();
+            reservedSeats = occupancy[OccupancyService.TRAIN_TOTAL].getTaken();
             availableSeats = totalCapacity - reservedSeats;
             if (availableSeats < numberOfTickets) {
                 System.out.println("Not enough seats available for the requested number of tickets.");
                 for (int car = 1; car <= cars; car++) { 
                     if (reservationsSeats[car - 1] > 0) {
-                        reservationService.deleteReservation(trainId, Timestamp.valueOf(departureTime), car, resId);
+                        reservationService.deleteReservation(trainId, departureTime, car, resId);
                     }
                 }
                 return null;
             }
             int car = random.nextInt(cars) + 1;
-            availableSeats = carCapacity - orderService.getTakenSeatsByCar(trainId, departureTime, car) - reservationService.getSumReservedSeatsByCar(trainId, departureTime, car);
+            availableSeats = carCapacity - occupancy[car].getTaken();
             if (availableSeats > 0) {
                 int ticketsToReserve = Math.min(remainingTickets, availableSeats);
-                int res = reservationService.reserveSeats(resId, trainId, Timestamp.valueOf(departureTime), userId, car, ticketsToReserve, carCapacity);
+                int res = reservationService.reserveSeats(resId, trainId, departureTime, userId, car, ticketsToReserve, carCapacity);
                 if (res == 0 ){
                     System.out.println("Reservation failed. Please try again.");
                     continue;
@@ -158,7 +162,7 @@ public class OrderServiceTestONE {
             for (int car = 1; car <= cars; car++) {
                 reservedSeats = reservationsSeats[car - 1];
                 if (reservedSeats > 0) {
-                    int res = reservationService.confirmReservation(resId, orderId, trainId, Timestamp.valueOf(departureTime), userId, car, reservedSeats, orderService);
+                    int res = reservationService.confirmReservation(resId, orderId, trainId, departureTime, userId, car, reservedSeats, orderService);
                     if (res == 0) {
                         System.out.println("Reservation failed. Please try again.");
                     }
@@ -0,0 +1,67 @@
+package com.trains;
+
+import com.trains.backend.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class OrderWriteBenchmarkTest {
+
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static UserService userService;
+    private static TrainService trainService;
+    private static final int warmupOrders = 200;
+    private static final int measuredOrders = 2000;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        orderService = session.getOrderService();
+        userService = session.getUserService();
+        trainService = session.getTrainService();
+    }
+
+    @Test
+    public void benchmarkOrderWriteModes() {
+        OrderWriteMode configuredMode = orderService.getOrderWriteMode();
+        try {
+            int trainId = 7300;
+            for (OrderWriteMode mode : OrderWriteMode.values()) {
+                orderService.setOrderWriteMode(mode);
+                long tripDate = Timestamp.valueOf("2024-12-28 16:00:00").getTime();
+                trainService.upsertTrain(++trainId, tripDate, 10, 1000);
+                UUID userId = UUID.randomUUID();
+                userService.upsertUser(userId, "Benchmark User " + mode);
+
+                for (int i = 0; i < warmupOrders; i++) {
+                    orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, i % 10 + 1, 1);
+                }
+
+                long[] latencies = new long[measuredOrders];
+                for (int i = 0; i < measuredOrders; i++) {
+                    long start = System.nanoTime();
+                    orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, i % 10 + 1, 1);
+                    latencies[i] = System.nanoTime() - start;
+                }
+                printLatencies(mode, latencies);
+            }
+        } finally {
+            orderService.setOrderWriteMode(configuredMode);
+        }
+    }
+
+    private void printLatencies(OrderWriteMode mode, long[] latencies) {
+        Arrays.sort(latencies);
+        double mean = Arrays.stream(latencies).average().orElse(0) / 1000.0;
+        System.out.println(String.format("%-15s mean: %8.1f us, p50: %8.1f us, p99: %8.1f us, max: %8.1f us",
+                mode, mean, percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1000.0));
+    }
+
+    private double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1000.0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.AllocationPlan;
+import com.trains.model.TrainKey;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlaceOrderTest {
+
+    @Test
+    public void testRejectedPlanLeavesNoCarOrderedWithCoordinator() throws Exception {
+        assertPlanIsAllOrNothing(BackendConfig.defaults().with("storage", "memory").with("booking_coordinator_enabled", "true"), 7501);
+    }
+
+    @Test
+    public void testRejectedPlanLeavesNoCarOrderedWithoutCoordinator() throws Exception {
+        assertPlanIsAllOrNothing(BackendConfig.defaults().with("storage", "memory").with("booking_coordinator_enabled", "false"), 7502);
+    }
+
+    @Test
+    public void testRejectedPlanLeavesNoCarOrderedWithSeatClaims() throws Exception {
+        assertPlanIsAllOrNothing(BackendConfig.defaults().with("storage", "memory").with("seat_cas_enabled", "true"), 7503);
+    }
+
+    private static void assertPlanIsAllOrNothing(BackendConfig config, int trainId) throws Exception {
+        BackendSession session = new BackendSession("unused", "unused", "ONE", config);
+        OrderService orderService = session.getOrderService();
+        long tripDate = Timestamp.valueOf("2024-12-29 10:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        session.getTrainService().upsertTrain(trainId, tripDate, 2, 5);
+        AllocationPlan plan = new AllocationPlan(new TrainKey(trainId, tripDate), seats(1, 5, 2, 3));
+
+        // Car 2 fills up after the plan was made, so the plan no longer fits.
+        assertTrue(orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 2, 4));
+        assertFalse(orderService.placeOrder(UUID.randomUUID(), userId, plan));
+
+        assertEquals(0, orderService.getTakenSeatsByCar(trainId, tripDate, 1));
+        assertEquals(4, orderService.getTakenSeatsByCar(trainId, tripDate, 2));
+        assertEquals(0, session.getUserOrderService().selectOrders(trainId, tripDate, userId).size());
+        // The rejected plan gave its seats back: car 1 can still be sold in full.
+        assertTrue(orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 5));
+        session.close();
+    }
+
+    private static Map<Integer, Integer> seats(int... carsAndSeats) {
+        Map<Integer, Integer> seats = new LinkedHashMap<>();
+        for (int i = 0; i < carsAndSeats.length; i += 2) {
+            seats.put(carsAndSeats[i], carsAndSeats[i + 1]);
+        }
+        return seats;
+    }
+}
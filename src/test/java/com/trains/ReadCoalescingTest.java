@@ -0,0 +1,59 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.backend.metrics.Coalescer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadCoalescingTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static Coalescer coalescer;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        // A TTL far longer than the test makes every repeated read a shared one.
+        BackendConfig config = BackendConfig.load().with("read_coalescing_enabled", "true").with("read_coalescing_ttl_millis", "60000");
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        coalescer = session.getMetrics().coalescer("orderedSeats");
+    }
+
+    @Test
+    public void testRepeatedReadsShareOneLoad() {
+        int trainId = 8101;
+        long tripDate = Timestamp.valueOf("2024-12-28 21:00:00").getTime();
+        trainService.upsertTrain(trainId, tripDate, 2, 50);
+        long requestsBefore = coalescer.getRequests();
+        long loadsBefore = coalescer.getLoads();
+
+        int taken = orderService.getTakenSeats(trainId, tripDate);
+        for (int i = 0; i < 9; i++) {
+            assertEquals(taken, orderService.getTakenSeats(trainId, tripDate));
+        }
+
+        assertEquals(10, coalescer.getRequests() - requestsBefore);
+        assertEquals(1, coalescer.getLoads() - loadsBefore);
+    }
+
+    @Test
+    public void testOwnWriteIsNeverReadFromASharedResult() {
+        int trainId = 8102;
+        long tripDate = Timestamp.valueOf("2024-12-28 21:30:00").getTime();
+        trainService.upsertTrain(trainId, tripDate, 2, 50);
+        int takenByCar = orderService.getTakenSeatsByCar(trainId, tripDate, 1);
+        int taken = orderService.getTakenSeats(trainId, tripDate);
+
+        orderService.upsertOrder(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 3);
+
+        assertEquals(takenByCar + 3, orderService.getTakenSeatsByCar(trainId, tripDate, 1));
+        assertEquals(taken + 3, orderService.getTakenSeats(trainId, tripDate));
+    }
+}
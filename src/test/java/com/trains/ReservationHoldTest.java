@@ -0,0 +1,62 @@
+package com.trains;
+
+import com.trains.backend.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ReservationHoldTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static ReservationService reservationService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM",
+                BackendConfig.load().with("hold_ttl_seconds", "1").with("hold_bucket_seconds", "1"));
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        reservationService = session.getReservationService();
+    }
+
+    @Test
+    public void testAbandonedHoldExpires() throws Exception {
+        int trainId = 7601;
+        long tripDate = Timestamp.valueOf("2024-12-28 19:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 2, 10);
+        UUID resId = UUID.randomUUID();
+
+        assertEquals(1, reservationService.reserveSeats(resId, trainId, tripDate, userId, 1, 10, 10));
+        assertEquals(10, reservationService.getSumReservedSeatsByCar(trainId, tripDate, 1));
+        assertEquals(0, reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 1, 1, 10));
+
+        Thread.sleep(2_100);
+        assertEquals(0, reservationService.getSumReservedSeatsByCar(trainId, tripDate, 1));
+        assertNull(reservationService.getReservation(trainId, tripDate, 1, resId));
+        assertEquals(0, reservationService.confirmReservation(resId, UUID.randomUUID(), trainId, tripDate, userId, 1, 10, orderService));
+        assertEquals(1, reservationService.reserveSeats(UUID.randomUUID(), trainId, tripDate, userId, 1, 10, 10));
+    }
+
+    @Test
+    public void testConfirmedHoldCannotBeConfirmedAgain() {
+        int trainId = 7602;
+        long tripDate = Timestamp.valueOf("2024-12-28 19:00:00").getTime();
+        UUID userId = UUID.randomUUID();
+        trainService.upsertTrain(trainId, tripDate, 2, 10);
+        UUID resId = UUID.randomUUID();
+
+        reservationService.reserveSeats(resId, trainId, tripDate, userId, 2, 4, 10);
+        assertEquals(1, reservationService.confirmReservation(resId, UUID.randomUUID(), trainId, tripDate, userId, 2, 4, orderService));
+        assertEquals(0, reservationService.confirmReservation(resId, UUID.randomUUID(), trainId, tripDate, userId, 2, 4, orderService));
+
+        assertEquals(4, orderService.getTakenSeatsByCar(trainId, tripDate, 2));
+        assertEquals(0, reservationService.getSumReservedSeatsByCar(trainId, tripDate, 2));
+    }
+}
@@ -0,0 +1,56 @@
+package com.trains;
+
+import com.trains.backend.AllocationStrategy;
+import com.trains.backend.SeatAllocationPlanner;
+import com.trains.model.AllocationPlan;
+import com.trains.model.Train;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SeatAllocationPlannerTest {
+    private static final Train train = new Train(1, 0L, 4, 10);
+    // Index 0 is the train total, cars 1..4 have 8, 3, 0 and 6 seats free.
+    private static final int[] taken = {23, 2, 7, 10, 4};
+
+    @Test
+    public void testFirstFitFillsCarsInOrder() {
+        AllocationPlan plan = SeatAllocationPlanner.plan(train, taken, 10, AllocationStrategy.FIRST_FIT);
+        assertEquals(seats(1, 8, 2, 2), plan.getSeatsByCar());
+    }
+
+    @Test
+    public void testBestFitUsesTheFullestCarThatFits() {
+        assertEquals(seats(2, 3), SeatAllocationPlanner.plan(train, taken, 3, AllocationStrategy.BEST_FIT).getSeatsByCar());
+        assertEquals(seats(4, 5), SeatAllocationPlanner.plan(train, taken, 5, AllocationStrategy.BEST_FIT).getSeatsByCar());
+        assertEquals(seats(1, 8, 2, 3), SeatAllocationPlanner.plan(train, taken, 11, AllocationStrategy.BEST_FIT).getSeatsByCar());
+    }
+
+    @Test
+    public void testLeastSplitUsesTheEmptiestCars() {
+        assertEquals(seats(1, 3), SeatAllocationPlanner.plan(train, taken, 3, AllocationStrategy.LEAST_SPLIT).getSeatsByCar());
+        AllocationPlan plan = SeatAllocationPlanner.plan(train, taken, 14, AllocationStrategy.LEAST_SPLIT);
+        assertEquals(seats(1, 8, 4, 6), plan.getSeatsByCar());
+        assertEquals(2, plan.getCarCount());
+    }
+
+    @Test
+    public void testNotEnoughSeats() {
+        for (AllocationStrategy strategy : AllocationStrategy.values()) {
+            assertNull(SeatAllocationPlanner.plan(train, taken, 18, strategy));
+            assertEquals(17, SeatAllocationPlanner.plan(train, taken, 17, strategy).getTotalSeats());
+        }
+    }
+
+    private static Map<Integer, Integer> seats(int... carAndSeats) {
+        Map<Integer, Integer> seats = new LinkedHashMap<>();
+        for (int i = 0; i < carAndSeats.length; i += 2) {
+            seats.put(carAndSeats[i], carAndSeats[i + 1]);
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,88 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import com.trains.model.TrainKey;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeatClaimTest {
+    private static BackendConfig config;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        config = BackendConfig.load().with("seat_cas_enabled", "true").with("seat_cas_max_retries", "50");
+    }
+
+    @Test
+    public void testTwoInstancesDoNotOversell() throws Exception {
+        BackendConfig noSpill = config.with("seat_cas_spill_over", "false");
+        BackendSession first = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", noSpill);
+        BackendSession second = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", noSpill);
+        int trainId = 7901;
+        long tripDate = Timestamp.valueOf("2024-12-28 19:00:00").getTime();
+        first.getTrainService().upsertTrain(trainId, tripDate, 2, 30);
+        first.getOccupancyService().rebuildOccupancy(trainId, tripDate);
+        int before = first.getOrderService().getTakenSeatsByCar(trainId, tripDate, 1);
+
+        List<CompletableFuture<Boolean>> results = book(first, second, trainId, tripDate, 80);
+        int accepted = (int) results.stream().filter(CompletableFuture::join).count();
+
+        assertEquals(30 - before, accepted);
+        assertEquals(30, first.getOrderService().getTakenSeatsByCar(trainId, tripDate, 1));
+        assertEquals(0, first.getOrderService().getSeatClaimSpills() + second.getOrderService().getSeatClaimSpills());
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testSpilledOrdersKeepLedgerAndCountersInStep() throws Exception {
+        BackendSession first = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        BackendSession second = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        int trainId = 7902;
+        long tripDate = Timestamp.valueOf("2024-12-28 19:30:00").getTime();
+        first.getTrainService().upsertTrain(trainId, tripDate, 3, 30);
+        first.getOccupancyService().rebuildOccupancy(trainId, tripDate);
+        int before = first.getOrderService().getTakenSeats(trainId, tripDate);
+
+        List<CompletableFuture<Boolean>> results = book(first, second, trainId, tripDate, 60);
+        int accepted = (int) results.stream().filter(CompletableFuture::join).count();
+
+        assertEquals(before + accepted, first.getOrderService().getTakenSeats(trainId, tripDate));
+        SeatLedgerRepository ledger = first.getStorage().seatLedger();
+        for (int car = 1; car <= 3; car++) {
+            int taken = first.getOrderService().getTakenSeatsByCar(trainId, tripDate, car);
+            assertTrue(taken <= 30);
+            Integer granted = ledger.findGrantedAsync(new TrainKey(trainId, tripDate), car).join();
+            assertEquals(taken, granted == null ? 0 : granted.intValue());
+        }
+        first.close();
+        second.close();
+    }
+
+    /**
+     * Books one seat in car 1 per order from many client threads, alternating between the two sessions.
+     */
+    private static List<CompletableFuture<Boolean>> book(BackendSession first, BackendSession second, int trainId, long tripDate, int orders) {
+        ExecutorService clients = first.newRequestExecutor("claim-test", 32);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            OrderService orderService = (i % 2 == 0 ? first : second).getOrderService();
+            Order order = new Order(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 1);
+            results.add(CompletableFuture.supplyAsync(() -> orderService.upsertOrderAsync(order), clients).thenCompose(result -> result));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+        clients.shutdown();
+        return results;
+    }
+}
@@ -0,0 +1,69 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import com.trains.model.TrainKey;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SeatEscrowTest {
+    private static BackendConfig config;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        config = BackendConfig.load().with("seat_escrow_enabled", "true").with("seat_escrow_block_seats", "8");
+    }
+
+    @Test
+    public void testTwoInstancesDoNotOversell() throws Exception {
+        BackendSession first = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        BackendSession second = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        int trainId = 7801;
+        long tripDate = Timestamp.valueOf("2024-12-28 18:00:00").getTime();
+        first.getTrainService().upsertTrain(trainId, tripDate, 2, 30);
+        first.getOccupancyService().rebuildOccupancy(trainId, tripDate);
+        int before = first.getOrderService().getTakenSeatsByCar(trainId, tripDate, 1);
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            OrderService orderService = (i % 2 == 0 ? first : second).getOrderService();
+            results.add(orderService.upsertOrderAsync(new Order(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 1, 1)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+        int accepted = (int) results.stream().filter(CompletableFuture::join).count();
+
+        assertEquals(30 - before, accepted);
+        assertEquals(30, first.getOrderService().getTakenSeatsByCar(trainId, tripDate, 1));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testUnusedSeatsAreReturnedOnClose() throws Exception {
+        BackendSession session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", config);
+        int trainId = 7802;
+        long tripDate = Timestamp.valueOf("2024-12-28 18:30:00").getTime();
+        session.getTrainService().upsertTrain(trainId, tripDate, 2, 30);
+        session.getOccupancyService().rebuildOccupancy(trainId, tripDate);
+        int before = session.getOrderService().getTakenSeatsByCar(trainId, tripDate, 2);
+
+        for (int i = 0; i < 3; i++) {
+            session.getOrderService().upsertOrderAsync(new Order(UUID.randomUUID(), trainId, tripDate, UUID.randomUUID(), 2, 1)).join();
+        }
+        SeatLedgerRepository ledger = session.getStorage().seatLedger();
+        TrainKey key = new TrainKey(trainId, tripDate);
+        // The lease covers a whole block, more than the three booked seats.
+        assertEquals(Math.min(30, before + 8), ledger.findGrantedAsync(key, 2).join().intValue());
+
+        session.close();
+        assertEquals(Math.min(30, before + 3), ledger.findGrantedAsync(key, 2).join().intValue());
+    }
+}
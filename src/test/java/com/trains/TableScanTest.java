@@ -0,0 +1,52 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableScanTest {
+    private static OrderService orderService;
+    private static TrainService trainService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        BackendSession session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM", BackendConfig.load());
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+    }
+
+    @Test
+    public void testScanDeliversEveryOrder() {
+        int trainId = 8201;
+        long tripDate = Timestamp.valueOf("2024-12-28 22:00:00").getTime();
+        trainService.upsertTrain(trainId, tripDate, 2, 50);
+        Set<UUID> inserted = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 20; i++) {
+            UUID orderId = UUID.randomUUID();
+            inserted.add(orderId);
+            orderService.upsertOrder(orderId, trainId, tripDate, UUID.randomUUID(), 1 + i % 2, 1);
+        }
+
+        Set<UUID> scanned = ConcurrentHashMap.newKeySet();
+        long count = AsyncSupport.join(orderService.scanAllOrdersAsync(order -> scanned.add(order.getOrderId())));
+
+        assertTrue(scanned.containsAll(inserted));
+        assertEquals(count, scanned.size());
+        assertEquals(orderService.selectAllOrders().size(), count);
+    }
+
+    @Test
+    public void testFindAllMatchesScan() {
+        long count = AsyncSupport.join(trainService.scanAllTrainsAsync(train -> { }));
+        assertEquals(trainService.selectAllTrains().size(), count);
+    }
+}
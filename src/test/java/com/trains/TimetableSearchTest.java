@@ -0,0 +1,61 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Page;
+import com.trains.model.TrainAvailability;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimetableSearchTest {
+    private static BackendSession session;
+    private static TrainService trainService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        trainService = session.getTrainService();
+    }
+
+    @Test
+    public void testSearchPagesAcrossDays() {
+        String[] departures = {"2031-03-14 06:00:00", "2031-03-14 18:00:00", "2031-03-14 22:30:00", "2031-03-14 23:59:00",
+                "2031-03-15 00:30:00", "2031-03-15 05:00:00", "2031-03-15 09:00:00"};
+        for (int i = 0; i < departures.length; i++) {
+            trainService.upsertTrain(7500 + i, Timestamp.valueOf(departures[i]).getTime(), 2, 10);
+        }
+        long from = Timestamp.valueOf("2031-03-14 12:00:00").getTime();
+        long to = Timestamp.valueOf("2031-03-15 09:00:00").getTime();
+
+        List<Integer> found = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            Page<TrainAvailability> page = trainService.searchTimetable(from, to, 2, token);
+            assertTrue(page.getItems().size() <= 2);
+            for (TrainAvailability availability : page.getItems()) {
+                found.add(availability.getTrain().getTrainId());
+                assertEquals(20, availability.getAvailableSeats());
+            }
+            token = page.getNextToken();
+            pages++;
+        } while (token != null && pages < 10);
+
+        assertEquals(List.of(7501, 7502, 7503, 7504, 7505), found);
+    }
+
+    @Test
+    public void testEmptyRange() {
+        long from = Timestamp.valueOf("2031-04-01 10:00:00").getTime();
+        Page<TrainAvailability> page = trainService.searchTimetable(from, from + 60_000, 10, null);
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.hasNext());
+    }
+}
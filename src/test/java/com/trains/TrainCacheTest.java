@@ -0,0 +1,48 @@
+package com.trains;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.trains.backend.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrainCacheTest {
+    private static BackendSession session;
+    private static TrainService trainService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        trainService = session.getTrainService();
+    }
+
+    @Test
+    public void testUpsertWritesThroughToCache() {
+        long tripDate = Timestamp.valueOf("2024-12-28 15:00:00").getTime();
+        trainService.upsertTrain(7201, tripDate, 4, 30);
+        CacheStats before = trainService.getTrainCacheStats();
+
+        assertTrue(trainService.isValidCar(7201, tripDate, 4));
+        assertFalse(trainService.isValidCar(7201, tripDate, 5));
+        assertEquals(30, trainService.getTrainAsync(7201, tripDate).join().getSeatsPerCar());
+
+        CacheStats after = trainService.getTrainCacheStats();
+        assertEquals(before.hitCount() + 3, after.hitCount());
+        assertEquals(before.missCount(), after.missCount());
+    }
+
+    @Test
+    public void testMissingTrainIsNotCached() {
+        long tripDate = Timestamp.valueOf("1999-01-01 00:00:00").getTime();
+        assertNull(trainService.getTrainAsync(-7201, tripDate).join());
+        CacheStats before = trainService.getTrainCacheStats();
+        assertNull(trainService.getTrainAsync(-7201, tripDate).join());
+        assertEquals(before.missCount() + 1, trainService.getTrainCacheStats().missCount());
+    }
+}
@@ -0,0 +1,63 @@
+package com.trains;
+
+import com.trains.backend.*;
+import com.trains.model.Order;
+import com.trains.model.Page;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserOrderHistoryTest {
+    private static BackendSession session;
+    private static OrderService orderService;
+    private static TrainService trainService;
+    private static UserOrderService userOrderService;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        session = new BackendSession("127.0.0.1:9042", "Pociagi", "QUORUM");
+        orderService = session.getOrderService();
+        trainService = session.getTrainService();
+        userOrderService = session.getUserOrderService();
+    }
+
+    @Test
+    public void testHistoryPagesAcrossMonths() {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        String[] departures = {"2032-01-10 10:00:00", "2032-01-20 10:00:00", "2032-02-05 10:00:00", "2032-02-28 10:00:00", "2032-03-01 10:00:00"};
+        List<UUID> orderIds = new ArrayList<>();
+        for (int i = 0; i < departures.length; i++) {
+            long tripDate = Timestamp.valueOf(departures[i]).getTime();
+            trainService.upsertTrain(7600 + i, tripDate, 2, 10);
+            UUID orderId = UUID.randomUUID();
+            orderIds.add(orderId);
+            assertTrue(orderService.upsertOrder(orderId, 7600 + i, tripDate, userId, 1, 2));
+            orderService.upsertOrder(UUID.randomUUID(), 7600 + i, tripDate, otherUserId, 2, 1);
+        }
+
+        long from = Timestamp.valueOf("2032-01-15 00:00:00").getTime();
+        long to = Timestamp.valueOf("2032-03-01 10:00:00").getTime();
+        List<UUID> found = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            Page<Order> page = userOrderService.getOrdersForUser(userId, from, to, 2, token);
+            for (Order order : page.getItems()) {
+                assertEquals(userId, order.getUserId());
+                found.add(order.getOrderId());
+            }
+            token = page.getNextToken();
+            pages++;
+        } while (token != null && pages < 10);
+
+        assertEquals(orderIds.subList(1, 4), found);
+    }
+}
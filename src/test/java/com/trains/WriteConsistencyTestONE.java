@@ -39,7 +39,7 @@ public class WriteConsistencyTestONE {
     public void testWriteConsistency() throws BackendException {
         UUID userId = UUID.randomUUID();
         int trainId = 4091;
-        Timestamp tripDate = Timestamp.valueOf("2024-12-28 11:00:00");
+        long tripDate = Timestamp.valueOf("2024-12-28 11:00:00").getTime();
 
         userServiceOne.upsertUser(userId, "Test User ONE");
         // Insert train with QUORUM consistency
@@ -48,7 +48,7 @@ public class WriteConsistencyTestONE {
         // Insert a test order
         orderServiceOne.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 2);
 
-        int seats = orderServiceTwo.getTakenSeatsByCar(trainId, tripDate.toString(), 1);
+        int seats = orderServiceTwo.getTakenSeatsByCar(trainId, tripDate, 1);
 
         assertEquals(2, seats, "Inconsistency detected");
 
@@ -35,7 +35,7 @@ public class WriteConsistencyTestQUORUM {
     public void testWriteConsistency() throws BackendException {
         UUID userId = UUID.randomUUID();
         int trainId = 4092;
-        Timestamp tripDate = Timestamp.valueOf("2024-12-28 11:00:00");
+        long tripDate = Timestamp.valueOf("2024-12-28 11:00:00").getTime();
 
         userServiceOne.upsertUser(userId, "Test User QUORUM");
         // Insert train with QUORUM consistency
@@ -44,7 +44,7 @@ public class WriteConsistencyTestQUORUM {
         // Insert a test order
         orderServiceOne.upsertOrder(UUID.randomUUID(), trainId, tripDate, userId, 1, 2);
 
-        int seats = orderServiceTwo.getTakenSeatsByCar(trainId, tripDate.toString(), 1);
+        int seats = orderServiceTwo.getTakenSeatsByCar(trainId, tripDate, 1);
 
         assertEquals(2, seats, "Inconsistency detected");
     }